@@ -0,0 +1,80 @@
+package storemanagementtool.store.dto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering and parsing a catalog page or full catalog response body in each encoding the API serves.
+ * The encoded size of every combination is printed once per trial, next to the throughput numbers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductEncodingBenchmark {
+    public enum Encoding {
+        JSON(new JsonFactory()),
+        CBOR(new CBORFactory()),
+        SMILE(new SmileFactory());
+
+        private final JsonFactory factory;
+
+        Encoding(JsonFactory factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private Encoding encoding;
+
+    @Param({"100", "1000", "100000"})
+    private int catalogSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<ProductDto> products;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(encoding.factory).build();
+        CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class);
+        writer = objectMapper.writerFor(listType);
+        reader = objectMapper.readerFor(listType);
+        products = new ArrayList<>(catalogSize);
+        for (long id = 1; id <= catalogSize; id++) {
+            products.add(ProductDto.builder()
+                    .id(id)
+                    .name("Product " + id)
+                    .price(1.0 + id % 1000 / 10.0)
+                    .quantity((int) (id % 500))
+                    .version(id % 7)
+                    .build());
+        }
+        encoded = writer.writeValueAsBytes(products);
+        System.out.printf("%n%s payload for %d products: %d bytes%n", encoding, catalogSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws Exception {
+        return writer.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<ProductDto> deserializeProductList() throws Exception {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,41 @@
+package storemanagementtool.store.mapper;
+
+import org.openjdk.jmh.annotations.*;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.model.Product;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+    private ProductMapper productMapper;
+    private Product product;
+    private ProductDto productDto;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapper();
+        product = Product.builder()
+                .id(42L)
+                .name("Sample Product")
+                .price(19.99)
+                .quantity(100)
+                .build();
+        productDto = productMapper.convertToDto(product);
+    }
+
+    @Benchmark
+    public ProductDto convertToDto() {
+        return productMapper.convertToDto(product);
+    }
+
+    @Benchmark
+    public Product convertToEntity() {
+        return productMapper.convertToEntity(productDto);
+    }
+}
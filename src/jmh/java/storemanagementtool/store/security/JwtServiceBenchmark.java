@@ -0,0 +1,68 @@
+package storemanagementtool.store.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+import storemanagementtool.store.model.Role;
+import storemanagementtool.store.model.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done by the login path (generate) and by the security filter on every Bearer request (verify).
+ * {@code verifiedCacheSize = 0} measures a full signature check and claim parse on each call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    private static final String SECRET_KEY = "NDA0RTYzNTI2NjU1NkE1ODZFMzI3MjM1NzUzODc4MkY0MTNGNDQyODQ3MkI0QjYyNTA2NDUzNjc1NjZCNTk3MA==";
+
+    @Param({"0", "10000"})
+    private long verifiedCacheSize;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", verifiedCacheSize);
+        jwtService.init();
+        user = User.builder()
+                .username("user")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    /** What the filter does per request: one verification, then the username and expiry checks on the result. */
+    @Benchmark
+    public void filterPath(Blackhole blackhole) {
+        VerifiedToken verified = jwtService.verify(token);
+        blackhole.consume(jwtService.isTokenValid(verified, user));
+    }
+}
@@ -0,0 +1,92 @@
+package storemanagementtool.store.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import storemanagementtool.store.StoreApplication;
+import storemanagementtool.store.dto.CheckoutLine;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductPageDto;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService end to end (proxies, transactions, cache, Hibernate) against an embedded H2 database.
+ * Absolute numbers are not Postgres numbers; use them to compare changes to the code, not the database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long firstId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(StoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "application.security.jwt.secret-key=NDA0RTYzNTI2NjU1NkE1ODZFMzI3MjM1NzUzODc4MkY0MTNGNDQyODQ3MkI0QjYyNTA2NDUzNjc1NjZCNTk3MA==",
+                        "application.security.jwt.expiration=3600000",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "logging.level.root=WARN")
+                .run();
+        productService = context.getBean(ProductService.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products.add(Product.builder()
+                    .name("Product " + i)
+                    .price(9.99)
+                    .quantity(Integer.MAX_VALUE / 2)
+                    .build());
+        }
+        firstId = productRepository.saveAll(products).get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(CATALOG_SIZE);
+    }
+
+    @Benchmark
+    public ProductDto findProductById() {
+        return productService.findProductById(randomId());
+    }
+
+    @Benchmark
+    public ProductPageDto getProductsPage() {
+        return productService.getProducts(randomId(), 100);
+    }
+
+    @Benchmark
+    public ProductDto buyProduct() {
+        return productService.buyProduct(randomId(), 1);
+    }
+
+    @Benchmark
+    public List<ProductDto> checkoutFiveLines() {
+        List<CheckoutLine> lines = new ArrayList<>(5);
+        for (int i = 0; i < 5; i++) {
+            lines.add(new CheckoutLine(randomId(), 1));
+        }
+        return productService.checkout(lines);
+    }
+}
@@ -0,0 +1,52 @@
+package storemanagementtool.store.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String USERS_CACHE = "users";
+
+    @Value("${application.cache.products.maximum-size:10000}")
+    private long productsMaximumSize;
+
+    @Value("${application.cache.products.expire-after-write:10m}")
+    private Duration productsExpireAfterWrite;
+
+    @Value("${application.cache.users.maximum-size:10000}")
+    private long usersMaximumSize;
+
+    @Value("${application.cache.users.expire-after-write:30s}")
+    private Duration usersExpireAfterWrite;
+
+    /**
+     * Caffeine evicts with W-TinyLFU once the size bound is hit. Puts and evictions are deferred until the
+     * surrounding transaction commits, so a rolled-back write never leaks into the cache. Hit, miss and eviction
+     * counts are published as cache.* metrics by Actuator.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(productsMaximumSize)
+                .expireAfterWrite(productsExpireAfterWrite)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(USERS_CACHE, Caffeine.newBuilder()
+                .maximumSize(usersMaximumSize)
+                .expireAfterWrite(usersExpireAfterWrite)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,37 @@
+package storemanagementtool.store.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import storemanagementtool.store.service.InProcessInvalidationTransport;
+import storemanagementtool.store.service.InvalidationTransport;
+import storemanagementtool.store.service.PostgresInvalidationTransport;
+
+import java.time.Duration;
+
+/**
+ * Picks the transport for cache invalidations with {@code application.cache.invalidation.transport}:
+ * {@code in-process} (default, single instance) or {@code postgres} (LISTEN/NOTIFY on the application database).
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.cache.invalidation.transport", havingValue = "in-process", matchIfMissing = true)
+    public InvalidationTransport inProcessInvalidationTransport() {
+        return new InProcessInvalidationTransport();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.cache.invalidation.transport", havingValue = "postgres")
+    public InvalidationTransport postgresInvalidationTransport(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                                               @Value("${application.cache.invalidation.poll-timeout:500ms}") Duration pollTimeout,
+                                                               @Value("${application.cache.invalidation.reconnect-delay:1s}") Duration reconnectDelay) {
+        return new PostgresInvalidationTransport(jdbcTemplate, dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+                pollTimeout, reconnectDelay);
+    }
+}
@@ -0,0 +1,51 @@
+package storemanagementtool.store.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Retries run outside the transaction advice (lower order wins), so every attempt gets a fresh transaction and
+ * re-reads the row it lost the race on.
+ */
+@Configuration
+@EnableRetry(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryConfig {
+    public static final String OPTIMISTIC_LOCK_RETRY_LISTENER = "optimisticLockRetryListener";
+
+    /**
+     * Counts every optimistic-lock conflict as {@code product.optimistic_lock.conflicts} and every call that ran
+     * out of attempts as {@code product.optimistic_lock.exhausted}.
+     */
+    @Bean(OPTIMISTIC_LOCK_RETRY_LISTENER)
+    public RetryListener optimisticLockRetryListener(MeterRegistry meterRegistry) {
+        Counter conflicts = Counter.builder("product.optimistic_lock.conflicts")
+                .description("Product writes that lost an optimistic-lock race")
+                .register(meterRegistry);
+        Counter exhausted = Counter.builder("product.optimistic_lock.exhausted")
+                .description("Product writes that failed after all retry attempts")
+                .register(meterRegistry);
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    conflicts.increment();
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    exhausted.increment();
+                }
+            }
+        };
+    }
+}
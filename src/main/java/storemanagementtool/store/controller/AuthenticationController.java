@@ -1,9 +1,11 @@
 package storemanagementtool.store.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import storemanagementtool.store.dto.AuthenticationRequest;
@@ -11,6 +13,8 @@ import storemanagementtool.store.dto.AuthenticationResponse;
 import storemanagementtool.store.dto.RegisterRequest;
 import storemanagementtool.store.service.AuthenticationService;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 public class AuthenticationController {
@@ -29,7 +33,19 @@ public class AuthenticationController {
     }
 
     @PostMapping("/authenticate")
-    public ResponseEntity<AuthenticationResponse> authenticate(@RequestBody AuthenticationRequest request) {
-        return ResponseEntity.ok(authenticationService.authenticate(request));
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> authenticate(@RequestBody AuthenticationRequest request) {
+        return authenticationService.authenticateAsync(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Revokes the Bearer token the request was sent with.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("A Bearer token is required.");
+        }
+        authenticationService.revoke(authorization.substring(7));
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package storemanagementtool.store.controller;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import storemanagementtool.store.dto.CatalogStatsDto;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductSortField;
+import storemanagementtool.store.service.CatalogColumnIndex;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/product/catalog")
+public class CatalogIndexController {
+    private final CatalogColumnIndex catalogColumnIndex;
+
+    public CatalogIndexController(CatalogColumnIndex catalogColumnIndex) {
+        this.catalogColumnIndex = catalogColumnIndex;
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductDto>> findProducts(ProductSearchCriteria criteria,
+                                                         @RequestParam(defaultValue = "ID") ProductSortField sort,
+                                                         @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(catalogColumnIndex.findProducts(criteria, sort, direction, limit));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogStatsDto> getStats(ProductSearchCriteria criteria) {
+        return ResponseEntity.ok(catalogColumnIndex.getStats(criteria));
+    }
+}
@@ -1,31 +1,178 @@
 package storemanagementtool.store.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import storemanagementtool.store.dto.BulkRepriceRequest;
+import storemanagementtool.store.dto.BulkRepriceResponse;
+import storemanagementtool.store.dto.CatalogVersion;
+import storemanagementtool.store.dto.CheckoutRequest;
+import storemanagementtool.store.dto.ProductChangesDto;
+import storemanagementtool.store.dto.ExportFormat;
 import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductImportResponse;
+import storemanagementtool.store.dto.ProductPageDto;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductSearchResponse;
+import storemanagementtool.store.dto.ProductSortField;
+import storemanagementtool.store.dto.ReservationDto;
+import storemanagementtool.store.dto.StockAvailabilityDto;
+import storemanagementtool.store.dto.StoreStockDto;
+import storemanagementtool.store.service.CatalogSnapshot;
+import storemanagementtool.store.service.CatalogSnapshotService;
+import storemanagementtool.store.service.InventoryReservationService;
+import storemanagementtool.store.service.ProductEventBroadcaster;
+import storemanagementtool.store.service.ProductExportService;
+import storemanagementtool.store.service.ProductImportService;
+import storemanagementtool.store.service.ProductRepriceService;
 import storemanagementtool.store.service.ProductService;
+import storemanagementtool.store.service.StoreStockService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/product")
 public class ProductController {
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    /** Encodings of product payloads, in the order the message converters are registered. */
+    private static final List<MediaType> PRODUCT_ENCODINGS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE);
+
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final InventoryReservationService inventoryReservationService;
+    private final ProductEventBroadcaster productEventBroadcaster;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductRepriceService productRepriceService;
+    private final StoreStockService storeStockService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             ProductImportService productImportService, ProductRepriceService productRepriceService,
+                             InventoryReservationService inventoryReservationService,
+                             ProductEventBroadcaster productEventBroadcaster,
+                             CatalogSnapshotService catalogSnapshotService, StoreStockService storeStockService) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productImportService = productImportService;
+        this.productRepriceService = productRepriceService;
+        this.inventoryReservationService = inventoryReservationService;
+        this.productEventBroadcaster = productEventBroadcaster;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.storeStockService = storeStockService;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProduct(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.findProductById(id));
+    public ResponseEntity<ProductDto> getProduct(@PathVariable Long id, WebRequest webRequest, HttpServletResponse response) {
+        MediaType encoding = negotiateEncoding(webRequest.getHeader(HttpHeaders.ACCEPT));
+        // set before the conditional check, so a 304 also tells caches the tag is only valid for this Accept
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // revalidation only needs the version, from the cache or the version column; the entity is loaded when stale
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(productETag(productService.findProductVersion(id), encoding))) {
+            return null;
+        }
+        ProductDto product = productService.findProductById(id);
+        return ResponseEntity.ok()
+                .eTag(productETag(product.getVersion(), encoding))
+                .contentType(encoding)
+                .body(product);
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<StockAvailabilityDto> getAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(storeStockService.getAvailability(id));
+    }
+
+    @GetMapping("/{id}/stores/{storeId}/stock")
+    public ResponseEntity<StoreStockDto> getStoreStock(@PathVariable Long id, @PathVariable Long storeId) {
+        return ResponseEntity.ok(storeStockService.findStoreStock(id, storeId));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPageDto> getAllProducts(@RequestParam(required = false) Long after,
+                                                         @RequestParam(defaultValue = "100") int limit,
+                                                         WebRequest webRequest, HttpServletResponse response) {
+        MediaType encoding = negotiateEncoding(webRequest.getHeader(HttpHeaders.ACCEPT));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // read before the page, so a concurrent write can only make the ETag older than the body, never newer
+        String eTag = catalogETag(productService.getCatalogVersion(), encoding);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(encoding)
+                .body(productService.getProducts(after, limit));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDto> getProductChanges(@RequestParam(required = false) String since,
+                                                               @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productService.getProductChanges(since, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> searchProducts(ProductSearchCriteria criteria,
+                                                                @RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "20") int size,
+                                                                @RequestParam(defaultValue = "ID") ProductSortField sort,
+                                                                @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        return ResponseEntity.ok(productService.searchProducts(criteria, page, size, sort, direction));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(@RequestParam(required = false) List<Long> ids) {
+        return productEventBroadcaster.subscribe(ids == null ? List.of() : ids);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = outputStream -> productExportService.exportProducts(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + format.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> getCatalogSnapshot(WebRequest webRequest) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String eTag = gzip ? snapshot.gzipETag() : snapshot.eTag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
     }
 
     @PostMapping
@@ -34,15 +181,130 @@ public class ProductController {
         return ResponseEntity.ok(productService.addProduct(productDto));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<ProductImportResponse> importProductsJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importJson(body));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<ProductImportResponse> importProductsCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
     @PatchMapping("/{id}/price")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductDto> updateProductPrice(@PathVariable Long id, @RequestParam double price) {
         return ResponseEntity.ok(productService.updateProductPrice(id, price));
     }
 
+    @PostMapping("/reprice")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkRepriceResponse> repriceProducts(@RequestBody @Valid BulkRepriceRequest request) {
+        return ResponseEntity.ok(productRepriceService.reprice(request));
+    }
+
     @PatchMapping("/{id}/buy")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductDto> buyProduct(@PathVariable Long id, @RequestParam int quantity) {
         return ResponseEntity.ok(productService.buyProduct(id, quantity));
     }
-}
\ No newline at end of file
+
+    @PutMapping("/{id}/stores/{storeId}/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StoreStockDto> setStoreStock(@PathVariable Long id, @PathVariable Long storeId,
+                                                       @RequestParam int quantity) {
+        return ResponseEntity.ok(storeStockService.setStoreStock(id, storeId, quantity));
+    }
+
+    @PatchMapping("/{id}/stores/{storeId}/buy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StoreStockDto> buyFromStore(@PathVariable Long id, @PathVariable Long storeId,
+                                                      @RequestParam int quantity) {
+        return ResponseEntity.ok(storeStockService.buyFromStore(id, storeId, quantity));
+    }
+
+    @PostMapping("/checkout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ProductDto>> checkout(@RequestBody @Valid CheckoutRequest request) {
+        return ResponseEntity.ok(productService.checkout(request.getLines()));
+    }
+
+    @PostMapping("/{id}/reservations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReservationDto> reserveProduct(@PathVariable Long id, @RequestParam int quantity) {
+        return ResponseEntity.ok(inventoryReservationService.reserve(id, quantity));
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductDto> confirmReservation(@PathVariable UUID reservationId) {
+        return ResponseEntity.ok(inventoryReservationService.confirm(reservationId));
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> cancelReservation(@PathVariable UUID reservationId) {
+        inventoryReservationService.cancel(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" is an explicit refusal
+                return parts.length < 2 || !parts[1].trim().matches("(?i)q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the product encoding the message converters would pick for {@code accept}, so the ETag can name it and
+     * the response is pinned to it; JSON when nothing acceptable is offered.
+     */
+    private static MediaType negotiateEncoding(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> requested;
+        try {
+            requested = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(requested);
+        for (MediaType type : requested) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType encoding : PRODUCT_ENCODINGS) {
+                if (type.isCompatibleWith(encoding)) {
+                    return encoding;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /** JSON keeps the bare tag; other encodings of the same version are different bytes and get their own tag. */
+    private static String encodingSuffix(MediaType encoding) {
+        if (MediaType.APPLICATION_CBOR.equals(encoding)) {
+            return "-cbor";
+        }
+        return SMILE.equals(encoding) ? "-smile" : "";
+    }
+
+    private static String productETag(long version, MediaType encoding) {
+        return "\"" + version + encodingSuffix(encoding) + "\"";
+    }
+
+    private static String catalogETag(CatalogVersion catalogVersion, MediaType encoding) {
+        return "\"" + catalogVersion.toTag() + encodingSuffix(encoding) + "\"";
+    }
+}
@@ -0,0 +1,29 @@
+package storemanagementtool.store.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Either a list of absolute {@code prices}, or an adjustment ({@code percentChange} and/or {@code rounding}) applied
+ * to the products in {@code ids} or, without ids, to every product priced between {@code minPrice} and
+ * {@code maxPrice} (both optional, inclusive).
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRepriceRequest {
+    private List<@Valid @NotNull(message = "Price change is required.") PriceChange> prices;
+
+    private List<@NotNull(message = "Product id is required.") Long> ids;
+    private Double minPrice;
+    private Double maxPrice;
+
+    @DecimalMin(value = "-100", inclusive = false, message = "Percent change must be greater than -100.")
+    private Double percentChange;
+    private PriceRounding rounding;
+}
@@ -0,0 +1,12 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRepriceResponse {
+    /** Products whose price was written; ids that do not exist or fall outside the price range are not counted. */
+    private long updated;
+}
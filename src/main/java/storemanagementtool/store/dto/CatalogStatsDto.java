@@ -0,0 +1,19 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+/**
+ * Totals over the products matching a filter. {@code minPrice} and {@code maxPrice} are {@code null} when nothing
+ * matches.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogStatsDto {
+    private long productCount;
+    private long totalQuantity;
+    private double inventoryValue;
+    private Double minPrice;
+    private Double maxPrice;
+}
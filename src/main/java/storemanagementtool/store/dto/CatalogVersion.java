@@ -0,0 +1,22 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogVersion {
+    /** Transaction id of the catalog's latest write. */
+    private Long maxChangeTxid;
+    /** Oldest transaction still running when the version was read. */
+    private Long horizon;
+
+    /**
+     * Changes whenever a product is added or modified. A running transaction older than the latest write could
+     * still commit without raising it, so the horizon is part of the tag until every such transaction is finished.
+     */
+    public String toTag() {
+        return horizon > maxChangeTxid ? String.valueOf(maxChangeTxid) : maxChangeTxid + "-" + horizon;
+    }
+}
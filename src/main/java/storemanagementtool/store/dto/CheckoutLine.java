@@ -0,0 +1,18 @@
+package storemanagementtool.store.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutLine {
+    @NotNull(message = "Product id is required.")
+    private Long productId;
+
+    @NotNull(message = "Quantity is required.")
+    @Positive(message = "Quantity must be greater than zero.")
+    private Integer quantity;
+}
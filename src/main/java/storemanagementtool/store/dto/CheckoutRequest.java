@@ -0,0 +1,19 @@
+package storemanagementtool.store.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutRequest {
+    @NotEmpty(message = "Checkout must contain at least one line.")
+    @Size(max = 500, message = "Checkout must not contain more than 500 lines.")
+    private List<@Valid @NotNull(message = "Checkout line is required.") CheckoutLine> lines;
+}
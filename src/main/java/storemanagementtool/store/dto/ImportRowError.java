@@ -0,0 +1,12 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+    private long row;
+    private String message;
+}
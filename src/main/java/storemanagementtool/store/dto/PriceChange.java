@@ -0,0 +1,18 @@
+package storemanagementtool.store.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceChange {
+    @NotNull(message = "Product id is required.")
+    private Long productId;
+
+    @NotNull(message = "Product price is required.")
+    @Positive(message = "Product price must be positive.")
+    private Double price;
+}
@@ -0,0 +1,15 @@
+package storemanagementtool.store.dto;
+
+/**
+ * How a bulk reprice rounds each computed price.
+ */
+public enum PriceRounding {
+    /** Keep the computed price as is. */
+    NONE,
+    /** Round half up to whole cents, at least 0.01. */
+    CENTS,
+    /** Round half up to whole units, at least 1. */
+    WHOLE,
+    /** Round up to the next price ending in .99, keeping a price that already ends in .99. */
+    NINETY_NINE
+}
@@ -0,0 +1,14 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangeDto {
+    private Long id;
+    private Double price;
+    private Integer quantity;
+    private Long version;
+}
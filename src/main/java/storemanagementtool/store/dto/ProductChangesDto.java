@@ -0,0 +1,15 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangesDto {
+    private List<ProductDto> products;
+    private String nextToken;
+    private boolean hasMore;
+}
@@ -1,5 +1,6 @@
 package storemanagementtool.store.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -22,4 +23,7 @@ public class ProductDto {
     @NotNull(message = "Product quantity is required.")
     @Positive(message = "Product quantity must be greater than zero.")
     private Integer quantity;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
\ No newline at end of file
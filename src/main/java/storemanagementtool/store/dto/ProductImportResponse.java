@@ -0,0 +1,16 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResponse {
+    private long imported;
+    private long failed;
+    /** The first failures only; {@code failed} holds the full count. */
+    private List<ImportRowError> errors;
+}
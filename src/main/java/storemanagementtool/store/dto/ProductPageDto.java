@@ -0,0 +1,14 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPageDto {
+    private List<ProductDto> products;
+    private Long nextCursor;
+}
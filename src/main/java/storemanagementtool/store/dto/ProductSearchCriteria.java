@@ -0,0 +1,25 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+/**
+ * Optional filters for product search; {@code null} fields are not applied. Name matching ignores case.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchCriteria {
+    private String name;
+    @Builder.Default
+    private NameMatch nameMatch = NameMatch.PREFIX;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer minQuantity;
+    private Integer maxQuantity;
+
+    public enum NameMatch {
+        PREFIX,
+        CONTAINS
+    }
+}
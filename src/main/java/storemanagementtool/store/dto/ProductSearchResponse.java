@@ -0,0 +1,16 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchResponse {
+    private List<ProductDto> products;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,21 @@
+package storemanagementtool.store.dto;
+
+/**
+ * Columns search results may be ordered by; each has an index to serve the ordering.
+ */
+public enum ProductSortField {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    QUANTITY("quantity");
+
+    private final String property;
+
+    ProductSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+}
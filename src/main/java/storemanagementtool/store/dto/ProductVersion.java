@@ -0,0 +1,12 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductVersion {
+    private Long id;
+    private Long version;
+}
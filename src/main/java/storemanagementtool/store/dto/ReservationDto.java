@@ -0,0 +1,17 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationDto {
+    private UUID id;
+    private Long productId;
+    private Integer quantity;
+    private Instant expiresAt;
+}
@@ -0,0 +1,18 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAvailabilityDto {
+    private Long productId;
+    /** The product's own {@code quantity}: central warehouse stock, sold online. */
+    private int warehouseQuantity;
+    /** Warehouse stock plus every store's stock. */
+    private long totalQuantity;
+    private List<StoreStockDto> stores;
+}
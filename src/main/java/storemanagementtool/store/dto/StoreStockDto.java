@@ -0,0 +1,13 @@
+package storemanagementtool.store.dto;
+
+import lombok.*;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoreStockDto {
+    private Long productId;
+    private Long storeId;
+    private Integer quantity;
+}
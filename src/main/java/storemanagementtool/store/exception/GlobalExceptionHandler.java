@@ -1,7 +1,10 @@
 package storemanagementtool.store.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -9,20 +12,60 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import storemanagementtool.store.exception.custom.ProductOutOfStockException;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(NoSuchElementException.class)
     public ResponseEntity<String> handleProductNotFoundException(NoSuchElementException ex) {
+        countError("not_found");
         logger.error("Error: " + ex.getMessage());
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(ProductOutOfStockException.class)
     public ResponseEntity<String> handleProductOutOfStockException(ProductOutOfStockException ex) {
+        countError("out_of_stock");
         logger.error("Error: " + ex.getMessage());
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.PRECONDITION_FAILED);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        countError("bad_request");
+        logger.error("Error: " + ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        countError("conflict");
+        logger.warn("Conflict: " + ex.getMessage());
+        return new ResponseEntity<>("Product was modified concurrently, please retry.", HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecutionException(RejectedExecutionException ex) {
+        countError("rejected");
+        logger.warn("Rejected: " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server is busy, please retry.");
+    }
+
+    /**
+     * Counts handled errors as {@code api.errors}, tagged by type, so spikes in misses or sold-out products show up
+     * without grepping logs.
+     */
+    private void countError(String type) {
+        meterRegistry.counter("api.errors", "type", type).increment();
+    }
 }
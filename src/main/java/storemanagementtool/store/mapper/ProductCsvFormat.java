@@ -0,0 +1,86 @@
+package storemanagementtool.store.mapper;
+
+import org.springframework.stereotype.Component;
+import storemanagementtool.store.dto.ProductDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class ProductCsvFormat {
+    public static final String HEADER = "id,name,price,quantity";
+
+    public void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    public void writeRow(Writer writer, ProductDto product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeField(writer, product.getName());
+        writer.write(',');
+        writer.write(BigDecimal.valueOf(product.getPrice()).toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(product.getQuantity()));
+        writer.write('\n');
+    }
+
+    private void writeField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Reads one RFC 4180 record: quoted fields may contain commas, doubled quotes and line breaks.
+     * Returns {@code null} at end of input. The reader must support {@link Reader#mark(int)}.
+     */
+    public List<String> readRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
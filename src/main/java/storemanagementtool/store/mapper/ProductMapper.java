@@ -12,6 +12,7 @@ public class ProductMapper {
                 .name(product.getName())
                 .price(product.getPrice())
                 .quantity(product.getQuantity())
+                .version(product.getVersion())
                 .build();
     }
 
@@ -2,6 +2,9 @@ package storemanagementtool.store.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 @Builder
 @NoArgsConstructor
@@ -10,8 +13,14 @@ import lombok.*;
 @Setter
 @Entity(name = "product")
 public class Product {
+    /** Ids handed out per sequence call; must match the sequence increment (see V2 migration). */
+    public static final int ID_ALLOCATION_SIZE = 50;
+    /** Stamps every insert and update with the id of the writing transaction (see V5 migration). */
+    public static final String CURRENT_TXID = "txid_current()";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "product_id_seq", allocationSize = Product.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -20,4 +29,15 @@ public class Product {
     private Double price;
     @Column(nullable = false)
     private Integer quantity;
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    /**
+     * Id of the transaction that wrote the row last. Inserts take it from the column default; entity updates and the
+     * bulk statements set it explicitly.
+     */
+    @ColumnDefault(CURRENT_TXID)
+    @Generated(event = EventType.UPDATE, sql = CURRENT_TXID)
+    @Column(name = "change_txid", nullable = false, insertable = false)
+    private Long changeTxid;
 }
@@ -0,0 +1,23 @@
+package storemanagementtool.store.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A revoked token id, kept until the token would have expired anyway. Only read to refill the in-memory denylist.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity(name = "revoked_token")
+public class RevokedToken {
+    @Id
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,27 @@
+package storemanagementtool.store.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Units of a product held by one store. Each store buys from its own row, so a popular product is no longer a
+ * single hot row; availability across stores is the sum of the rows.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity(name = "store_stock")
+@IdClass(StoreStockId.class)
+public class StoreStock {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
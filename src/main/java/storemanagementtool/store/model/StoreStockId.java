@@ -0,0 +1,13 @@
+package storemanagementtool.store.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreStockId implements Serializable {
+    private Long productId;
+    private Long storeId;
+}
@@ -1,9 +1,92 @@
 package storemanagementtool.store.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import storemanagementtool.store.dto.CatalogVersion;
+import storemanagementtool.store.dto.ProductVersion;
 import storemanagementtool.store.model.Product;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    int STREAM_FETCH_SIZE = 1000;
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Products last written by transactions in {@code [(txid, id), horizon)}, ordered by transaction and id, served by
+     * the {@code (change_txid, id)} index.
+     */
+    @Query("select p from product p where (p.changeTxid, p.id) > (:txid, :id) and p.changeTxid < :horizon order by p.changeTxid, p.id")
+    List<Product> findChangesAfter(long txid, long id, long horizon, Limit limit);
+
+    /**
+     * The oldest transaction still running. Every transaction below it has finished, so no row with a smaller
+     * {@code change_txid} can still appear.
+     */
+    @Query(value = "SELECT txid_snapshot_xmin(txid_current_snapshot())", nativeQuery = true)
+    long findChangeHorizon();
+
+    /**
+     * Scrolls the whole table through a server-side cursor. Must be consumed inside a transaction
+     * (the Postgres driver only honours the fetch size with auto-commit off) and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Product> streamAllByOrderByIdAsc();
+
+    /**
+     * Takes {@code quantity} units in a single guarded statement, so concurrent buyers can never drive stock
+     * below zero. Returns the number of rows updated: 0 when the product is missing or has too little stock.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1, p.changeTxid = function('txid_current') where p.id = :id and p.quantity >= :quantity")
+    int decrementQuantity(Long id, int quantity);
+
+    /**
+     * One keyset page of the ids of products priced within {@code [minPrice, maxPrice]}, ascending.
+     */
+    @Query("select p.id from product p where p.id > :after and p.price >= :minPrice and p.price <= :maxPrice order by p.id")
+    List<Long> findIdsInPriceRange(Long after, double minPrice, double maxPrice, Limit limit);
+
+    @Query("select p.version from product p where p.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select p.quantity from product p where p.id = :id")
+    Optional<Integer> findQuantityById(Long id);
+
+    @Query("select new storemanagementtool.store.dto.ProductVersion(p.id, p.version) from product p where p.id in :ids")
+    List<ProductVersion> findVersionsByIdIn(Collection<Long> ids);
+
+    /**
+     * One keyset page of the ids and versions of all products, ascending by id.
+     */
+    @Query("select new storemanagementtool.store.dto.ProductVersion(p.id, p.version) from product p where p.id > :after order by p.id")
+    List<ProductVersion> findVersionsAfter(Long after, Limit limit);
+
+    @Query("select coalesce(max(p.changeTxid), 0) from product p")
+    long findMaxChangeTxid();
+
+    /**
+     * A catalog watermark read from the end of the {@code (change_txid, id)} index rather than from every row.
+     */
+    default CatalogVersion findCatalogVersion() {
+        // horizon first: a write finishing in between can only add a needless change of tag, never hide one
+        long horizon = findChangeHorizon();
+        return new CatalogVersion(findMaxChangeTxid(), horizon);
+    }
 }
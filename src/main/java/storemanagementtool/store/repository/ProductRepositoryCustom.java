@@ -0,0 +1,36 @@
+package storemanagementtool.store.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import storemanagementtool.store.dto.PriceRounding;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.model.Product;
+
+import java.util.Collection;
+import java.util.SortedMap;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Applies the guarded stock decrement for every entry as one JDBC batch, in ascending id order.
+     * Returns the update count per entry in the map's iteration order; 0 means missing product or too little stock.
+     */
+    int[] decrementQuantities(SortedMap<Long, Integer> quantitiesById);
+
+    /**
+     * Sets every entry's price as one JDBC batch, in ascending id order. Returns the update count per entry in the
+     * map's iteration order; 0 means the product does not exist.
+     */
+    int[] updatePrices(SortedMap<Long, Double> pricesById);
+
+    /**
+     * Multiplies the price of the given products by {@code factor} and applies {@code rounding}, in one statement.
+     * Products priced outside {@code [minPrice, maxPrice]} are left alone. Returns the number of rows updated.
+     */
+    int adjustPrices(Collection<Long> ids, double factor, PriceRounding rounding, double minPrice, double maxPrice);
+
+    /**
+     * Finds products matching every non-null filter of {@code criteria}, ordered by the pageable's sort with id as
+     * tie-breaker. Returns a slice: one extra row is fetched to tell whether a next page exists, instead of counting.
+     */
+    Slice<Product> search(ProductSearchCriteria criteria, Pageable pageable);
+}
@@ -0,0 +1,152 @@
+package storemanagementtool.store.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import storemanagementtool.store.dto.PriceRounding;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    private static final String DECREMENT_QUANTITY_SQL =
+            "UPDATE product SET quantity = quantity - ?, version = version + 1, change_txid = " + Product.CURRENT_TXID
+                    + " WHERE id = ? AND quantity >= ?";
+    private static final String UPDATE_PRICE_SQL =
+            "UPDATE product SET price = ?, version = version + 1, change_txid = " + Product.CURRENT_TXID + " WHERE id = ?";
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ProductRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int[] decrementQuantities(SortedMap<Long, Integer> quantitiesById) {
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesById.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesById.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        // same contract as @Modifying(flushAutomatically = true, clearAutomatically = true): JDBC bypasses the session
+        entityManager.flush();
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_QUANTITY_SQL, batchArgs);
+        entityManager.clear();
+        return updateCounts;
+    }
+
+    @Override
+    public int[] updatePrices(SortedMap<Long, Double> pricesById) {
+        List<Object[]> batchArgs = new ArrayList<>(pricesById.size());
+        for (Map.Entry<Long, Double> entry : pricesById.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        entityManager.flush();
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, batchArgs);
+        entityManager.clear();
+        return updateCounts;
+    }
+
+    @Override
+    public int adjustPrices(Collection<Long> ids, double factor, PriceRounding rounding, double minPrice, double maxPrice) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE product SET price = " + adjustedPrice(rounding)
+                + ", version = version + 1, change_txid = " + Product.CURRENT_TXID
+                + " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")"
+                + " AND price >= ? AND price <= ?";
+        List<Object> args = new ArrayList<>(ids.size() + 3);
+        args.add(factor);
+        args.addAll(ids);
+        args.add(minPrice);
+        args.add(maxPrice);
+        entityManager.flush();
+        int updated = jdbcTemplate.update(sql, args.toArray());
+        entityManager.clear();
+        return updated;
+    }
+
+    private static String adjustedPrice(PriceRounding rounding) {
+        // price is NUMERIC; the factor is cast to NUMERIC too, so rounding sees the exact product rather than a
+        // binary double, and rounding never reaches zero
+        String exact = "CAST(price * CAST(? AS NUMERIC(30, 15)) AS NUMERIC(20, 6))";
+        return switch (rounding) {
+            case NONE -> "price * CAST(? AS NUMERIC(30, 15))";
+            case CENTS -> "GREATEST(ROUND(" + exact + ", 2), 0.01)";
+            case WHOLE -> "GREATEST(ROUND(" + exact + ", 0), 1)";
+            // the smallest price ending in .99 at or above the computed one: 10.99 stays, 10.995 becomes 11.99
+            case NINETY_NINE -> "CEIL(" + exact + " + 0.01) - 0.01";
+        };
+    }
+
+    @Override
+    public Slice<Product> search(ProductSearchCriteria criteria, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getName() != null && !criteria.getName().isBlank()) {
+            // lower(name) LIKE 'x%' is served by the text_pattern_ops index, '%x%' by the trigram index
+            String escaped = escapeLike(criteria.getName().toLowerCase(Locale.ROOT));
+            String pattern = criteria.getNameMatch() == ProductSearchCriteria.NameMatch.CONTAINS
+                    ? "%" + escaped + "%"
+                    : escaped + "%";
+            predicates.add(cb.like(cb.lower(product.get("name")), pattern, LIKE_ESCAPE));
+        }
+        addRange(predicates, cb, product.<Double>get("price"), criteria.getMinPrice(), criteria.getMaxPrice());
+        addRange(predicates, cb, product.<Integer>get("quantity"), criteria.getMinQuantity(), criteria.getMaxQuantity());
+        query.where(predicates.toArray(Predicate[]::new));
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor("id") == null) {
+            // same direction as the main order, so a (column, id) index can be walked either way
+            Sort.Direction direction = sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+        query.orderBy(QueryUtils.toOrders(sort, product, cb));
+
+        List<Product> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private static <T extends Comparable<? super T>> void addRange(List<Predicate> predicates, CriteriaBuilder cb,
+                                                                   Expression<T> expression, T min, T max) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(expression, min));
+        }
+        if (max != null) {
+            predicates.add(cb.lessThanOrEqualTo(expression, max));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
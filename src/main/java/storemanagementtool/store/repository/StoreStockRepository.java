@@ -0,0 +1,42 @@
+package storemanagementtool.store.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import storemanagementtool.store.model.StoreStock;
+import storemanagementtool.store.model.StoreStockId;
+
+import java.util.List;
+
+@Repository
+public interface StoreStockRepository extends JpaRepository<StoreStock, StoreStockId> {
+    List<StoreStock> findByProductIdOrderByStoreIdAsc(Long productId);
+
+    /**
+     * Takes {@code quantity} units from one store's row only, guarded like
+     * {@link ProductRepository#decrementQuantity}. Returns 0 when the store holds no row or too little stock.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update store_stock s set s.quantity = s.quantity - :quantity where s.productId = :productId and s.storeId = :storeId and s.quantity >= :quantity")
+    int decrementQuantity(Long productId, Long storeId, int quantity);
+
+    /**
+     * Creates one store's row with no stock unless it exists. {@code ON CONFLICT DO NOTHING} never fails on the key,
+     * so concurrent first writes to the same store can all run it. Returns 0 when the row exists or the product
+     * does not.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "insert into store_stock (product_id, store_id, quantity) "
+            + "select p.id, :storeId, 0 from product p where p.id = :productId "
+            + "on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(Long productId, Long storeId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update store_stock s set s.quantity = :quantity where s.productId = :productId and s.storeId = :storeId")
+    int updateQuantity(Long productId, Long storeId, int quantity);
+}
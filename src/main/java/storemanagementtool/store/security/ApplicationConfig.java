@@ -1,23 +1,43 @@
 package storemanagementtool.store.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import storemanagementtool.store.model.User;
 import storemanagementtool.store.repository.UserRepository;
+import storemanagementtool.store.service.CacheInvalidationBus;
 
 @Configuration
 public class ApplicationConfig {
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public ApplicationConfig(UserRepository userRepository) {
+    @Value("${application.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${application.security.login.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int loginPoolSize;
+
+    @Value("${application.security.login.queue-capacity:100}")
+    private int loginQueueCapacity;
+
+    public ApplicationConfig(UserRepository userRepository, MeterRegistry meterRegistry,
+                             CacheInvalidationBus cacheInvalidationBus) {
         this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     @Bean
@@ -25,21 +45,53 @@ public class ApplicationConfig {
         return username -> userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    /**
+     * Called by the authentication provider after a successful login whose stored hash was made with a lower
+     * BCrypt strength than the one configured now, so hashes are re-encoded as users sign in.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            User user = userDetails instanceof User storedUser
+                    ? storedUser
+                    : userRepository.findByUsername(userDetails.getUsername()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            user.setPassword(newPassword);
+            User saved = userRepository.save(user);
+            cacheInvalidationBus.invalidateUser(saved.getUsername());
+            return saved;
+        };
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider(){
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService());
         authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authenticationProvider;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), meterRegistry);
     }
 
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
         return  authenticationConfiguration.getAuthenticationManager();
     }
+
+    /**
+     * BCrypt checks run here instead of on Tomcat request threads, so a burst of logins cannot starve catalog reads.
+     * Once the queue is full, further logins are rejected straight away (503) rather than piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(loginPoolSize);
+        executor.setMaxPoolSize(loginPoolSize);
+        executor.setQueueCapacity(loginQueueCapacity);
+        executor.setThreadNamePrefix("login-");
+        return executor;
+    }
 }
@@ -1,29 +1,48 @@
 package storemanagementtool.store.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.CachingUserDetailsService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import storemanagementtool.store.config.CacheConfig;
 
 import java.io.IOException;
 
+/**
+ * Authenticates Bearer tokens from their verified claims alone. With {@code application.security.jwt.user-lookup}
+ * enabled, or for tokens issued without authorities, the user is loaded instead (through a short-lived cache) so that
+ * deleted users and changed roles take effect before the token expires. Revoked tokens are turned away by
+ * {@link TokenDenylist} in memory.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
+    private final UserDetailsService userLookupService;
+    private final boolean userLookup;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenDenylist tokenDenylist, UserDetailsService userDetailsService,
+                                   CacheManager cacheManager, @Value("${application.security.jwt.user-lookup:false}") boolean userLookup) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.tokenDenylist = tokenDenylist;
+        CachingUserDetailsService cachingUserDetailsService = new CachingUserDetailsService(userDetailsService);
+        cachingUserDetailsService.setUserCache(new SpringCacheBasedUserCache(cacheManager.getCache(CacheConfig.USERS_CACHE)));
+        this.userLookupService = cachingUserDetailsService;
+        this.userLookup = userLookup;
     }
 
     @Override
@@ -34,10 +53,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         String jwt = authHeader.substring(7);
-        String username = jwtService.extractUsername(jwt);
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        VerifiedToken token;
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // leave the request unauthenticated; protected endpoints will reject it
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (tokenDenylist.isRevoked(token.id())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (token.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = userLookup || !token.hasAuthorities()
+                    ? userLookupService.loadUserByUsername(token.username())
+                    : token.toUserDetails();
+            if (jwtService.isTokenValid(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -45,4 +77,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
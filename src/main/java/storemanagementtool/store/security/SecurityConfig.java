@@ -1,5 +1,6 @@
 package storemanagementtool.store.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -30,10 +31,20 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(req -> req
+                                // the request that started an async response was already authorized; the JWT filter
+                                // does not run again on its async dispatch
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers(WHITE_LIST_URL).permitAll()
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+                                // each stream holds a connection and a subscriber slot, so anonymous clients could use them all up
+                                .requestMatchers(HttpMethod.GET, "/api/v1/product/events").authenticated()
                                 .requestMatchers(HttpMethod.GET, "/api/v1/product/**").permitAll()
+                                .requestMatchers(HttpMethod.POST, "/api/v1/product/checkout", "/api/v1/product/reprice").hasAuthority("ADMIN")
+                                .requestMatchers("/api/v1/product/*/reservations", "/api/v1/product/reservations/**").hasAuthority("ADMIN")
                                 .requestMatchers(HttpMethod.POST, "/api/v1/product/**").hasAnyAuthority("USER", "ADMIN")
                                 .requestMatchers(HttpMethod.PATCH, "/api/v1/product/**").hasAuthority("ADMIN")
+                                .requestMatchers(HttpMethod.PUT, "/api/v1/product/**").hasAuthority("ADMIN")
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
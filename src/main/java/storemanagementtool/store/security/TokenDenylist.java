@@ -0,0 +1,117 @@
+package storemanagementtool.store.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ids of revoked tokens, checked on every authenticated request without touching the database. A Bloom filter
+ * answers the common "not revoked" case from a few bit reads; only its hits are confirmed against the exact set.
+ * <p>
+ * Entries only need to outlive the token they block, so the exact set is purged of tokens that expired anyway, and the
+ * Bloom filter is kept as two generations that rotate once per token lifetime: bits set in the older generation
+ * belong to tokens that have all expired by the time it is dropped. At most
+ * {@code application.security.jwt.denylist.max-entries} unexpired revocations are held; beyond that revoking fails
+ * rather than forgetting an earlier revocation.
+ */
+@Component
+public class TokenDenylist {
+    private static final int HASH_FUNCTIONS = 7;
+    /** About 1% false positives with {@link #HASH_FUNCTIONS} hashes when a generation holds max-entries ids. */
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long generationMillis;
+    private final int bitCount;
+    private volatile AtomicLongArray currentBits;
+    private volatile AtomicLongArray previousBits;
+    private long generationStartedAt;
+
+    public TokenDenylist(MeterRegistry meterRegistry,
+                         @Value("${application.security.jwt.expiration}") long expiration,
+                         @Value("${application.security.jwt.denylist.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.generationMillis = Math.max(1, expiration);
+        this.bitCount = Math.max(Long.SIZE, maxEntries * BITS_PER_ENTRY);
+        this.currentBits = new AtomicLongArray(bitCount / Long.SIZE + 1);
+        this.previousBits = new AtomicLongArray(bitCount / Long.SIZE + 1);
+        this.generationStartedAt = System.currentTimeMillis();
+        Gauge.builder("security.jwt.denylist.size", revoked, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || revoked.isEmpty()) {
+            return false;
+        }
+        long hash = hash(tokenId);
+        if (!mightContain(currentBits, hash) && !mightContain(previousBits, hash)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Blocks the token until {@code expiresAt}, after which it would be rejected anyway.
+     *
+     * @throws RejectedExecutionException if max-entries unexpired tokens are already revoked
+     */
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        long now = System.currentTimeMillis();
+        if (!expiresAt.isAfter(Instant.ofEpochMilli(now)) || revoked.containsKey(tokenId)) {
+            return;
+        }
+        if (now - generationStartedAt >= generationMillis) {
+            previousBits = currentBits;
+            currentBits = new AtomicLongArray(bitCount / Long.SIZE + 1);
+            generationStartedAt = now;
+        }
+        if (revoked.size() >= maxEntries) {
+            revoked.values().removeIf(expiry -> !expiry.isAfter(Instant.ofEpochMilli(now)));
+            if (revoked.size() >= maxEntries) {
+                throw new RejectedExecutionException("Too many revoked tokens, please retry later.");
+            }
+        }
+        // the exact entry is published first, so a Bloom hit always finds it
+        revoked.put(tokenId, expiresAt);
+        long hash = hash(tokenId);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = bitIndex(hash, i);
+            currentBits.getAndAccumulate(bit / Long.SIZE, 1L << (bit % Long.SIZE), (word, mask) -> word | mask);
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray bits, long hash) {
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = bitIndex(hash, i);
+            if ((bits.get(bit / Long.SIZE) & (1L << (bit % Long.SIZE))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Kirsch-Mitzenmacher double hashing: the i-th index is derived from the two halves of one 64-bit hash. */
+    private int bitIndex(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private static long hash(String tokenId) {
+        long hash = tokenId.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
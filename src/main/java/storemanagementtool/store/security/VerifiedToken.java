@@ -0,0 +1,36 @@
+package storemanagementtool.store.security;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of a token whose signature has already been checked. Immutable, so one instance can be shared by
+ * every request presenting the same token.
+ *
+ * @param id          the token's {@code jti}, or {@code null} for tokens minted before ids were issued; such
+ *                    tokens cannot be revoked
+ * @param authorities the authorities granted when the token was issued, or {@code null} for tokens minted
+ *                    before they were embedded
+ */
+public record VerifiedToken(String id, String username, List<String> authorities, Instant expiresAt) {
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    public boolean hasAuthorities() {
+        return authorities != null;
+    }
+
+    /**
+     * A principal built purely from the claims, for requests that do not need the stored user.
+     */
+    public UserDetails toUserDetails() {
+        return User.withUsername(username)
+                .password("")
+                .authorities(authorities.toArray(String[]::new))
+                .build();
+    }
+}
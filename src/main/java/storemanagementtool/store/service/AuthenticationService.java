@@ -1,11 +1,15 @@
 package storemanagementtool.store.service;
 
-import jakarta.persistence.EntityNotFoundException;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import storemanagementtool.store.security.JwtService;
+import storemanagementtool.store.security.VerifiedToken;
 import storemanagementtool.store.model.Role;
 import storemanagementtool.store.model.User;
 import storemanagementtool.store.repository.UserRepository;
@@ -13,18 +17,26 @@ import storemanagementtool.store.dto.AuthenticationRequest;
 import storemanagementtool.store.dto.AuthenticationResponse;
 import storemanagementtool.store.dto.RegisterRequest;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
 public class AuthenticationService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final Executor loginExecutor;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public AuthenticationService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthenticationService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager,
+                                 @Qualifier("loginExecutor") Executor loginExecutor, CacheInvalidationBus cacheInvalidationBus) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.loginExecutor = loginExecutor;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     public AuthenticationResponse register(RegisterRequest request) {
@@ -43,15 +55,44 @@ public class AuthenticationService {
     public Boolean isUsernameExists(String username){
         return userRepository.existsByUsername(username);
     }
+
+    /**
+     * Runs {@link #authenticate} on the login pool.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the pool and its queue are full
+     */
+    public CompletableFuture<AuthenticationResponse> authenticateAsync(AuthenticationRequest request) {
+        return CompletableFuture.supplyAsync(() -> authenticate(request), loginExecutor);
+    }
+
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
 
-        User user = userRepository.findByUsername(request.getUsername()).orElseThrow(EntityNotFoundException::new);
+        // the provider already loaded the user to check the password; no need to query it again
+        UserDetails user = (UserDetails) authentication.getPrincipal();
         String jwtToken = jwtService.generateToken(user);
 
         return AuthenticationResponse.builder()
                 .accessToken(jwtToken)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Revokes the token until it expires, on every instance. Revoking a token that is already revoked does nothing.
+     *
+     * @throws IllegalArgumentException if the token is invalid or was issued without an id
+     */
+    public void revoke(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException e) {
+            throw new IllegalArgumentException("Invalid token.");
+        }
+        if (verified.id() == null) {
+            throw new IllegalArgumentException("Token was issued without an id and cannot be revoked.");
+        }
+        cacheInvalidationBus.revokeToken(verified.id(), verified.expiresAt());
+    }
+}
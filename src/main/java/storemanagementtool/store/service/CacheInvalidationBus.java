@@ -0,0 +1,321 @@
+package storemanagementtool.store.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductVersion;
+import storemanagementtool.store.model.RevokedToken;
+import storemanagementtool.store.repository.ProductRepository;
+import storemanagementtool.store.repository.RevokedTokenRepository;
+import storemanagementtool.store.security.TokenDenylist;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the product and user caches, and the token denylists, of every instance in step. Committed writes on this instance are collected for
+ * {@code application.cache.invalidation.flush-interval} and broadcast as one message per interval, each product once
+ * with its newest version. Receivers evict only entries older than that version and publish a
+ * {@link ProductsInvalidatedEvent} for their other read models.
+ * <p>
+ * Messages can be lost (a send fails, a listener reconnects). Every {@code verify-interval}, and straight after the
+ * transport reports a gap, the versions of all cached products are compared with the database in batches and stale
+ * entries are evicted, so a lost message costs at most one interval of staleness. Token revocations are also stored
+ * as {@code revoked_token} rows when they are made; the unexpired ones are reloaded into the denylist at startup and
+ * after a gap, so neither a restart nor a lost message forgets one. Requests still only consult the denylist.
+ */
+@Component
+public class CacheInvalidationBus implements InvalidationTransport.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String PRODUCT = "P";
+    private static final String USER = "U";
+    private static final String TOKEN = "T";
+    private static final int VERIFY_BATCH_SIZE = 1000;
+
+    private final InvalidationTransport transport;
+    private final CacheManager cacheManager;
+    private final ProductRepository productRepository;
+    private final TokenDenylist tokenDenylist;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration flushInterval;
+    private final Duration verifyInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Long, Long> pendingProducts = new ConcurrentHashMap<>();
+    private final Set<String> pendingUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> pendingTokens = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter sentMessages;
+    private final Counter receivedMessages;
+    private final Counter staleEntries;
+
+    public CacheInvalidationBus(InvalidationTransport transport, CacheManager cacheManager, ProductRepository productRepository,
+                                TokenDenylist tokenDenylist, RevokedTokenRepository revokedTokenRepository,
+                                ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                                @Value("${application.cache.invalidation.flush-interval:50ms}") Duration flushInterval,
+                                @Value("${application.cache.invalidation.verify-interval:1m}") Duration verifyInterval) {
+        this.transport = transport;
+        this.cacheManager = cacheManager;
+        this.productRepository = productRepository;
+        this.tokenDenylist = tokenDenylist;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.flushInterval = flushInterval;
+        this.verifyInterval = verifyInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sentMessages = Counter.builder("cache.invalidation.messages")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.receivedMessages = Counter.builder("cache.invalidation.messages")
+                .tag("direction", "received")
+                .register(meterRegistry);
+        this.staleEntries = Counter.builder("cache.invalidation.stale")
+                .description("Cached products found stale by the version check, i.e. missed invalidations")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        transport.start(this);
+        // after listening starts, so a revocation made meanwhile arrives either as a row or as a message
+        reloadRevokedTokens();
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::verifyCachedProducts, verifyInterval.toMillis(), verifyInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        flush();
+        transport.stop();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (ProductDto product : event.products()) {
+            pendingProducts.merge(product.getId(), product.getVersion() == null ? 0 : product.getVersion(), Math::max);
+        }
+    }
+
+    /**
+     * Evicts the user here once the surrounding transaction commits, and on the other instances shortly after.
+     */
+    public void invalidateUser(String username) {
+        Cache userCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (userCache != null) {
+            userCache.evict(username);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingUsers.add(username);
+                }
+            });
+        } else {
+            pendingUsers.add(username);
+        }
+    }
+
+    /**
+     * Stores the revocation, denies the token here at once, and on the other instances shortly after.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if this instance's denylist is full
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        // stored first, so an acknowledged revocation survives a restart or a lost message
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(tokenId)
+                .expiresAt(expiresAt)
+                .build());
+        tokenDenylist.revoke(tokenId, expiresAt);
+        pendingTokens.put(tokenId, expiresAt);
+    }
+
+    void flush() {
+        try {
+            StringBuilder payload = new StringBuilder(nodeId);
+            for (Long id : pendingProducts.keySet()) {
+                Long version = pendingProducts.remove(id);
+                if (version != null) {
+                    payload = append(payload, PRODUCT + " " + id + " " + version);
+                }
+            }
+            for (String username : pendingUsers) {
+                if (pendingUsers.remove(username)) {
+                    payload = append(payload, USER + " " + URLEncoder.encode(username, StandardCharsets.UTF_8));
+                }
+            }
+            for (String tokenId : pendingTokens.keySet()) {
+                Instant expiresAt = pendingTokens.remove(tokenId);
+                if (expiresAt != null) {
+                    payload = append(payload, TOKEN + " " + URLEncoder.encode(tokenId, StandardCharsets.UTF_8)
+                            + " " + expiresAt.toEpochMilli());
+                }
+            }
+            if (payload.length() > nodeId.length()) {
+                send(payload);
+            }
+        } catch (RuntimeException e) {
+            // the other instances catch up through their version check
+            logger.error("Error: could not broadcast cache invalidations: " + e.getMessage());
+        }
+    }
+
+    private StringBuilder append(StringBuilder payload, String entry) {
+        if (payload.length() > nodeId.length() && payload.length() + 1 + entry.length() > transport.maxPayloadLength()) {
+            send(payload);
+            payload = new StringBuilder(nodeId);
+        }
+        return payload.append('\n').append(entry);
+    }
+
+    private void send(StringBuilder payload) {
+        transport.send(payload.toString());
+        sentMessages.increment();
+    }
+
+    @Override
+    public void onMessage(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines.length < 2 || lines[0].equals(nodeId)) {
+            return;
+        }
+        receivedMessages.increment();
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        Cache userCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        Set<Long> productIds = new HashSet<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(" ");
+            try {
+                if (fields.length == 3 && fields[0].equals(PRODUCT)) {
+                    long id = Long.parseLong(fields[1]);
+                    productIds.add(id);
+                    evictIfOlder(productCache, id, Long.parseLong(fields[2]));
+                } else if (fields.length == 2 && fields[0].equals(USER) && userCache != null) {
+                    userCache.evict(URLDecoder.decode(fields[1], StandardCharsets.UTF_8));
+                } else if (fields.length == 3 && fields[0].equals(TOKEN)) {
+                    tokenDenylist.revoke(URLDecoder.decode(fields[1], StandardCharsets.UTF_8),
+                            Instant.ofEpochMilli(Long.parseLong(fields[2])));
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring malformed cache invalidation: " + lines[i]);
+            } catch (RejectedExecutionException e) {
+                logger.error("Error: could not apply token revocation: " + e.getMessage());
+            }
+        }
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsInvalidatedEvent(productIds));
+        }
+    }
+
+    @Override
+    public void onGap() {
+        Cache userCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (userCache != null) {
+            userCache.clear();
+        }
+        verifyCachedProducts();
+        reloadRevokedTokens();
+        eventPublisher.publishEvent(new ProductsInvalidatedEvent(Set.of()));
+    }
+
+    /**
+     * Deletes revocations of tokens that have expired and adds the others to the denylist.
+     */
+    void reloadRevokedTokens() {
+        try {
+            Instant now = Instant.now();
+            revokedTokenRepository.deleteExpired(now);
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+                tokenDenylist.revoke(token.getJti(), token.getExpiresAt());
+            }
+        } catch (RejectedExecutionException e) {
+            logger.error("Error: could not reload token revocations: " + e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error: could not read token revocations: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts every cached product whose version no longer matches the database, or which no longer exists.
+     */
+    void verifyCachedProducts() {
+        try {
+            Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (productCache == null
+                    || !(productCache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+                return;
+            }
+            Map<Long, Long> cachedVersions = new HashMap<>();
+            nativeCache.asMap().forEach((key, value) -> {
+                if (key instanceof Long id && value instanceof ProductDto product) {
+                    cachedVersions.put(id, product.getVersion());
+                }
+            });
+            List<Long> ids = new ArrayList<>(cachedVersions.keySet());
+            for (int from = 0; from < ids.size(); from += VERIFY_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + VERIFY_BATCH_SIZE));
+                Map<Long, Long> currentVersions = productRepository.findVersionsByIdIn(batch).stream()
+                        .collect(Collectors.toMap(ProductVersion::getId, ProductVersion::getVersion));
+                for (Long id : batch) {
+                    if (!Objects.equals(currentVersions.get(id), cachedVersions.get(id))) {
+                        productCache.evict(id);
+                        staleEntries.increment();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error: cached product version check failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIfOlder(Cache productCache, long id, long version) {
+        if (productCache == null) {
+            return;
+        }
+        ProductDto cached = productCache.get(id, ProductDto.class);
+        if (cached != null && (cached.getVersion() == null || cached.getVersion() < version)) {
+            productCache.evict(id);
+        }
+    }
+}
@@ -0,0 +1,632 @@
+package storemanagementtool.store.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.dto.CatalogStatsDto;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductSortField;
+import storemanagementtool.store.dto.ProductVersion;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Optional read-side copy of the catalog for whole-catalog filter, sort and aggregate queries, enabled with
+ * {@code application.catalog.index.enabled}. Products are held column by column in primitive arrays ordered by id,
+ * with prices in cents and duplicate names shared within each load. The columns are loaded once after startup and then patched from committed
+ * {@link ProductChangedEvent}s, newest version winning.
+ * <p>
+ * Queries split the rows into chunks scanned in parallel on the common fork-join pool. A chunk keeps only primitive
+ * totals or a bounded heap of row positions, so a scan allocates next to nothing per row. Committing threads only
+ * queue their changes, coalesced per product, and return; a dedicated thread applies the queue in batches under the
+ * write lock of a read-write lock, so it alone waits for running scans and a long scan never holds up a commit.
+ * Products written on other instances are re-read on the index's own thread when {@link CacheInvalidationBus}
+ * reports them, never on the thread delivering the report. When it reports
+ * that it lost track of what changed, a background pass walks the ids and versions of the whole catalog in batches
+ * and re-reads every product the index lacks or holds at another version.
+ * <p>
+ * Ordering by name compares UTF-16 code units ({@link String#compareTo}), not a locale's collation, so it can differ
+ * from {@code /search} sorted by name in the database wherever the database collation is not {@code C}, e.g. for
+ * mixed case or accented names. A collator is left out on purpose: it is far slower per comparison and not safe to
+ * share across the parallel chunks.
+ */
+@Service
+public class CatalogColumnIndex {
+    public static final int MAX_LIMIT = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(CatalogColumnIndex.class);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_CHUNK_SIZE = 16 * 1024;
+    private static final long LOAD_RETRY_SECONDS = 30;
+    private static final int RECONCILE_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Committed changes not yet applied, newest version per product; held back while the columns are loading. */
+    private final Map<Long, ProductDto> queuedChanges = new ConcurrentHashMap<>();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private final ExecutorService applier;
+    private final ExecutorService reconciler;
+    /** Set when a full version check is due; picked up once the columns are loaded. */
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+    private volatile boolean loaded;
+
+    private int size;
+    private long[] ids = new long[0];
+    private long[] versions = new long[0];
+    private long[] prices = new long[0];
+    private int[] quantities = new int[0];
+    private String[] names = new String[0];
+    private String[] lowerNames = new String[0];
+
+    public CatalogColumnIndex(ProductRepository productRepository, ProductMapper productMapper, EntityManager entityManager,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${application.catalog.index.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.applier = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-index-apply");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reconciler = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-index-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread loader = new Thread(this::loadUntilDone, "catalog-index-load");
+            loader.setDaemon(true);
+            loader.start();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (ProductDto product : event.products()) {
+            // commits can be delivered out of order; keep whichever change is newer
+            queuedChanges.merge(product.getId(), product, (queued, incoming) ->
+                    incoming.getVersion() == null || queued.getVersion() == null
+                            || incoming.getVersion() >= queued.getVersion() ? incoming : queued);
+        }
+        scheduleApply();
+    }
+
+    @EventListener
+    public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.productIds().isEmpty()) {
+            // any product may have changed unseen
+            reconcileRequested.set(true);
+            scheduleReconcile();
+            return;
+        }
+        List<Long> productIds = List.copyOf(event.productIds());
+        try {
+            reconciler.execute(() -> {
+                try {
+                    reread(productIds);
+                } catch (RuntimeException e) {
+                    logger.error("Error: catalog index re-read failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    public CatalogStatsDto getStats(ProductSearchCriteria criteria) {
+        Filter filter = new Filter(criteria);
+        return read(() -> {
+            Totals totals = scan((from, to) -> {
+                Totals chunk = new Totals();
+                for (int row = from; row < to; row++) {
+                    if (filter.matches(row)) {
+                        chunk.add(row);
+                    }
+                }
+                return chunk;
+            }, Totals::merge);
+            return CatalogStatsDto.builder()
+                    .productCount(totals.count)
+                    .totalQuantity(totals.quantity)
+                    .inventoryValue(totals.valueCents / 100.0)
+                    .minPrice(totals.count == 0 ? null : totals.minPrice / 100.0)
+                    .maxPrice(totals.count == 0 ? null : totals.maxPrice / 100.0)
+                    .build();
+        });
+    }
+
+    /**
+     * The first {@code limit} matching products in the given order, ties broken by id in the same direction.
+     */
+    public List<ProductDto> findProducts(ProductSearchCriteria criteria, ProductSortField sortField,
+                                         Sort.Direction direction, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        Filter filter = new Filter(criteria);
+        RowOrder order = new RowOrder(sortField, direction);
+        return read(() -> {
+            TopRows top = scan((from, to) -> {
+                TopRows chunk = new TopRows(limit, order);
+                for (int row = from; row < to; row++) {
+                    if (filter.matches(row)) {
+                        chunk.offer(row);
+                    }
+                }
+                return chunk;
+            }, TopRows::merge);
+            int[] rows = top.sorted();
+            List<ProductDto> products = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                products.add(toDto(row));
+            }
+            return products;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        applier.shutdownNow();
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * Waits until every re-read and version check requested before the call has finished.
+     */
+    void awaitReconciled() throws InterruptedException, ExecutionException {
+        reconciler.submit(() -> { }).get();
+    }
+
+    /**
+     * Waits until every change queued before the call has been applied.
+     */
+    void awaitApplied() throws InterruptedException, ExecutionException {
+        // the applier is single-threaded, so this runs after any apply already scheduled
+        applier.submit(() -> { }).get();
+    }
+
+    private void scheduleApply() {
+        if (applyScheduled.compareAndSet(false, true)) {
+            try {
+                applier.execute(this::applyQueued);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                applyScheduled.set(false);
+            }
+        }
+    }
+
+    private void applyQueued() {
+        // cleared first, so a change queued while this batch is applied schedules the next one
+        applyScheduled.set(false);
+        if (!loaded || queuedChanges.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyQueuedChanges();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyQueuedChanges() {
+        for (Long id : queuedChanges.keySet()) {
+            ProductDto change = queuedChanges.remove(id);
+            if (change != null) {
+                apply(change);
+            }
+        }
+    }
+
+    private void scheduleReconcile() {
+        if (!loaded) {
+            // load() checks the flag once the columns are in place
+            return;
+        }
+        try {
+            reconciler.execute(this::reconcile);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    /**
+     * Compares the version of every product in the database with the index, one keyset batch at a time, and
+     * re-reads the products that differ. Requests arriving while a pass runs are folded into one more pass.
+     */
+    private void reconcile() {
+        if (!reconcileRequested.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            long after = ProductService.FIRST_CURSOR;
+            List<ProductVersion> batch;
+            do {
+                batch = productRepository.findVersionsAfter(after, Limit.of(RECONCILE_BATCH_SIZE));
+                List<Long> stale = new ArrayList<>();
+                lock.readLock().lock();
+                try {
+                    for (ProductVersion version : batch) {
+                        int row = Arrays.binarySearch(ids, 0, size, version.getId());
+                        if (row < 0 || versions[row] != (version.getVersion() == null ? 0 : version.getVersion())) {
+                            stale.add(version.getId());
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+                if (!stale.isEmpty()) {
+                    reread(stale);
+                }
+                if (!batch.isEmpty()) {
+                    after = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == RECONCILE_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            logger.error("Error: catalog index version check failed: " + e.getMessage());
+        }
+    }
+
+    private void reread(Collection<Long> productIds) {
+        onProductChanged(new ProductChangedEvent(productRepository.findAllById(productIds).stream()
+                .map(productMapper::convertToDto)
+                .toList()));
+    }
+
+    private void loadUntilDone() {
+        while (true) {
+            try {
+                load();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error: catalog index load failed, retrying in " + LOAD_RETRY_SECONDS + "s: " + e.getMessage());
+            }
+            try {
+                TimeUnit.SECONDS.sleep(LOAD_RETRY_SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fills the columns from the database. Only this thread touches them until {@code loaded} is set, and changes
+     * committed in the meantime stay queued and are replayed on top, older versions being skipped.
+     */
+    void load() {
+        size = 0;
+        Map<String, String> interned = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+                products.forEach(product -> {
+                    ensureCapacity(size + 1);
+                    ids[size] = product.getId();
+                    set(size++, product.getVersion(), product.getName(), product.getPrice(), product.getQuantity(), interned);
+                    entityManager.detach(product);
+                });
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            applyQueuedChanges();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // changes queued after the replay above were skipped by the applier while loading
+        scheduleApply();
+        if (reconcileRequested.get()) {
+            scheduleReconcile();
+        }
+        logger.info("Catalog index loaded with " + size + " products.");
+    }
+
+    private void apply(ProductDto product) {
+        int row = Arrays.binarySearch(ids, 0, size, product.getId());
+        if (row < 0) {
+            row = -row - 1;
+            insertAt(row);
+            ids[row] = product.getId();
+        } else if (product.getVersion() != null && product.getVersion() < versions[row]) {
+            // an older write delivered after a newer one
+            return;
+        }
+        set(row, product.getVersion(), product.getName(), product.getPrice(), product.getQuantity(), null);
+    }
+
+    /**
+     * Writes one row. {@code interned}, when given, shares equal names between rows; it lives only as long as one
+     * load, so names of products since renamed or deleted are not held forever.
+     */
+    private void set(int row, Long version, String name, Double price, Integer quantity, Map<String, String> interned) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        versions[row] = version == null ? 0 : version;
+        names[row] = interned == null ? name : interned.computeIfAbsent(name, key -> key);
+        lowerNames[row] = interned == null ? lowerName : interned.computeIfAbsent(lowerName, key -> key);
+        prices[row] = toCents(price);
+        quantities[row] = quantity;
+    }
+
+    private void insertAt(int row) {
+        ensureCapacity(size + 1);
+        int moved = size - row;
+        System.arraycopy(ids, row, ids, row + 1, moved);
+        System.arraycopy(versions, row, versions, row + 1, moved);
+        System.arraycopy(prices, row, prices, row + 1, moved);
+        System.arraycopy(quantities, row, quantities, row + 1, moved);
+        System.arraycopy(names, row, names, row + 1, moved);
+        System.arraycopy(lowerNames, row, lowerNames, row + 1, moved);
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(Math.max(capacity, INITIAL_CAPACITY), ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        versions = Arrays.copyOf(versions, grown);
+        prices = Arrays.copyOf(prices, grown);
+        quantities = Arrays.copyOf(quantities, grown);
+        names = Arrays.copyOf(names, grown);
+        lowerNames = Arrays.copyOf(lowerNames, grown);
+    }
+
+    private <T> T read(Supplier<T> query) {
+        if (!enabled) {
+            throw new RejectedExecutionException("Catalog index is disabled.");
+        }
+        if (!loaded) {
+            throw new RejectedExecutionException("Catalog index is still loading.");
+        }
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code scan} over chunks of at least {@link #MIN_CHUNK_SIZE} rows in parallel and merges the results.
+     * Must be called holding the read lock.
+     */
+    private <T> T scan(ChunkScan<T> scan, BinaryOperator<T> merge) {
+        int rows = size;
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, rows / MIN_CHUNK_SIZE));
+        if (chunks == 1) {
+            return scan.scan(0, rows);
+        }
+        int chunkSize = (rows + chunks - 1) / chunks;
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> scan.scan(chunk * chunkSize, Math.min(rows, (chunk + 1) * chunkSize)))
+                .reduce(merge)
+                .orElseThrow();
+    }
+
+    private ProductDto toDto(int row) {
+        return productMapper.convertToDto(Product.builder()
+                .id(ids[row])
+                .name(names[row])
+                .price(prices[row] / 100.0)
+                .quantity(quantities[row])
+                .version(versions[row])
+                .build());
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    @FunctionalInterface
+    private interface ChunkScan<T> {
+        T scan(int from, int to);
+    }
+
+    private final class Filter {
+        private final String name;
+        private final boolean contains;
+        private final long minPrice;
+        private final long maxPrice;
+        private final int minQuantity;
+        private final int maxQuantity;
+
+        Filter(ProductSearchCriteria criteria) {
+            ProductSearchCriteria filter = criteria == null ? new ProductSearchCriteria() : criteria;
+            this.name = filter.getName() == null || filter.getName().isBlank()
+                    ? null : filter.getName().toLowerCase(Locale.ROOT);
+            this.contains = filter.getNameMatch() == ProductSearchCriteria.NameMatch.CONTAINS;
+            this.minPrice = filter.getMinPrice() == null ? Long.MIN_VALUE : toCents(filter.getMinPrice());
+            this.maxPrice = filter.getMaxPrice() == null ? Long.MAX_VALUE : toCents(filter.getMaxPrice());
+            this.minQuantity = filter.getMinQuantity() == null ? Integer.MIN_VALUE : filter.getMinQuantity();
+            this.maxQuantity = filter.getMaxQuantity() == null ? Integer.MAX_VALUE : filter.getMaxQuantity();
+        }
+
+        boolean matches(int row) {
+            long price = prices[row];
+            int quantity = quantities[row];
+            return price >= minPrice && price <= maxPrice && quantity >= minQuantity && quantity <= maxQuantity
+                    && (name == null || (contains ? lowerNames[row].contains(name) : lowerNames[row].startsWith(name)));
+        }
+    }
+
+    private final class RowOrder {
+        private final ProductSortField field;
+        private final boolean descending;
+
+        RowOrder(ProductSortField field, Sort.Direction direction) {
+            this.field = field;
+            this.descending = direction == Sort.Direction.DESC;
+        }
+
+        /** Negative when row {@code a} comes before row {@code b}. */
+        int compare(int a, int b) {
+            int result = switch (field) {
+                case ID -> 0;
+                case NAME -> names[a].compareTo(names[b]);
+                case PRICE -> Long.compare(prices[a], prices[b]);
+                case QUANTITY -> Integer.compare(quantities[a], quantities[b]);
+            };
+            if (result == 0) {
+                result = Long.compare(ids[a], ids[b]);
+            }
+            return descending ? -result : result;
+        }
+    }
+
+    private final class Totals {
+        private long count;
+        private long quantity;
+        private long valueCents;
+        private long minPrice = Long.MAX_VALUE;
+        private long maxPrice = Long.MIN_VALUE;
+
+        void add(int row) {
+            count++;
+            quantity += quantities[row];
+            valueCents += prices[row] * quantities[row];
+            minPrice = Math.min(minPrice, prices[row]);
+            maxPrice = Math.max(maxPrice, prices[row]);
+        }
+
+        Totals merge(Totals other) {
+            count += other.count;
+            quantity += other.quantity;
+            valueCents += other.valueCents;
+            minPrice = Math.min(minPrice, other.minPrice);
+            maxPrice = Math.max(maxPrice, other.maxPrice);
+            return this;
+        }
+    }
+
+    /**
+     * The best {@code limit} rows seen so far, as a heap with the last of them at the root.
+     */
+    private static final class TopRows {
+        private final int[] heap;
+        private final RowOrder order;
+        private int size;
+
+        TopRows(int limit, RowOrder order) {
+            this.heap = new int[limit];
+            this.order = order;
+        }
+
+        void offer(int row) {
+            if (size < heap.length) {
+                heap[size] = row;
+                siftUp(size++);
+            } else if (order.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(0);
+            }
+        }
+
+        TopRows merge(TopRows other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.heap[i]);
+            }
+            return this;
+        }
+
+        /** Empties the heap into an array in query order. */
+        int[] sorted() {
+            int[] rows = new int[size];
+            while (size > 0) {
+                rows[size - 1] = heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return rows;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (order.compare(heap[index], heap[parent]) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int last = index;
+                int left = 2 * index + 1;
+                if (left < size && order.compare(heap[left], heap[last]) > 0) {
+                    last = left;
+                }
+                if (left + 1 < size && order.compare(heap[left + 1], heap[last]) > 0) {
+                    last = left + 1;
+                }
+                if (last == index) {
+                    return;
+                }
+                swap(index, last);
+                index = last;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = heap[a];
+            heap[a] = heap[b];
+            heap[b] = row;
+        }
+    }
+}
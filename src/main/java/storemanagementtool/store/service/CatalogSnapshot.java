@@ -0,0 +1,10 @@
+package storemanagementtool.store.service;
+
+/**
+ * One immutable rendering of the whole catalog as a JSON array, in plain and gzip form.
+ *
+ * @param eTag     strong validator of {@code json}, derived from the catalog version the snapshot was built at
+ * @param gzipETag validator of {@code gzip}, which is a different representation and so needs its own
+ */
+public record CatalogSnapshot(byte[] json, byte[] gzip, String eTag, String gzipETag) {
+}
@@ -0,0 +1,140 @@
+package storemanagementtool.store.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import storemanagementtool.store.dto.ExportFormat;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the whole catalog as ready-to-send bytes. Readers take the current {@link CatalogSnapshot} with a single
+ * volatile read and never wait for a rebuild. Committed product writes, here or reported by
+ * {@link CacheInvalidationBus} from other instances, mark the snapshot stale; the first one starts a rebuild after
+ * {@code application.catalog.snapshot.rebuild-delay}, and every write landing in that window is folded into it.
+ * Rebuilds run one at a time on a background thread, and cost grows with the catalog, so under a steady stream of
+ * writes the thread rests after each rebuild for long enough that rebuilding takes at most {@code max-duty-cycle}
+ * of its time: a rebuild that took 200ms is followed by 1.8s of rest at the default of 0.1. Small catalogs stay
+ * close to {@code rebuild-delay}; large ones fall behind by a bounded fraction instead of rebuilding back to back.
+ * The snapshot is also refreshed every {@code max-age}, as a backstop for lost invalidations.
+ */
+@Service
+public class CatalogSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ProductExportService productExportService;
+    private final ProductRepository productRepository;
+    private final Duration rebuildDelay;
+    private final double maxDutyCycle;
+    private final ScheduledExecutorService rebuilder;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile CatalogSnapshot snapshot;
+    /** {@link System#nanoTime()} before which no rebuild may start. */
+    private volatile long restUntilNanos = System.nanoTime();
+
+    public CatalogSnapshotService(ProductExportService productExportService, ProductRepository productRepository,
+                                  @Value("${application.catalog.snapshot.rebuild-delay:500ms}") Duration rebuildDelay,
+                                  @Value("${application.catalog.snapshot.max-age:5m}") Duration maxAge,
+                                  @Value("${application.catalog.snapshot.max-duty-cycle:0.1}") double maxDutyCycle) {
+        if (maxDutyCycle <= 0 || maxDutyCycle > 1) {
+            throw new IllegalArgumentException("Snapshot max-duty-cycle must be in (0, 1].");
+        }
+        this.productExportService = productExportService;
+        this.productRepository = productRepository;
+        this.rebuildDelay = rebuildDelay;
+        this.maxDutyCycle = maxDutyCycle;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rebuilder.scheduleWithFixedDelay(this::requestRebuild, maxAge.toMillis(), maxAge.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The latest snapshot, or {@code null} until the first one has been built.
+     */
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Writes committed on other instances.
+     */
+    @EventListener
+    public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+        requestRebuild();
+    }
+
+    void requestRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            long delayNanos = snapshot == null ? 0
+                    : Math.max(rebuildDelay.toNanos(), restUntilNanos - System.nanoTime());
+            rebuilder.schedule(this::rebuild, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuild() {
+        // cleared first, so a write committed while this rebuild reads is caught by the next one
+        rebuildScheduled.set(false);
+        long started = System.nanoTime();
+        CatalogSnapshot built = null;
+        try {
+            built = build();
+        } catch (RuntimeException e) {
+            logger.error("Error: catalog snapshot rebuild failed, keeping the previous one: " + e.getMessage());
+        }
+        long finished = System.nanoTime();
+        // before publishing, so a write that sees the new snapshot already schedules against this rest
+        restUntilNanos = finished + (long) ((finished - started) * (1 - maxDutyCycle) / maxDutyCycle);
+        if (built != null) {
+            snapshot = built;
+        }
+    }
+
+    CatalogSnapshot build() {
+        // read before the rows, so the validator can only be older than the content it describes, never newer
+        String tag = productRepository.findCatalogVersion().toTag();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try {
+            productExportService.exportProducts(ExportFormat.JSON, json);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzip, 64 * 1024)) {
+                json.writeTo(gzipStream);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CatalogSnapshot(json.toByteArray(), gzip.toByteArray(), "\"" + tag + "\"", "\"" + tag + "-gzip\"");
+    }
+}
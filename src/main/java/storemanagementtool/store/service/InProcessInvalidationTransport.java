@@ -0,0 +1,32 @@
+package storemanagementtool.store.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers every message synchronously to the buses started on the same instance. Serves single-instance
+ * deployments, and lets tests run several buses against one transport.
+ */
+public class InProcessInvalidationTransport implements InvalidationTransport {
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public int maxPayloadLength() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void send(String payload) {
+        listeners.forEach(listener -> listener.onMessage(payload));
+    }
+
+    @Override
+    public void start(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void stop() {
+        listeners.clear();
+    }
+}
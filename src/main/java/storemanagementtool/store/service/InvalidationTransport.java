@@ -0,0 +1,30 @@
+package storemanagementtool.store.service;
+
+/**
+ * Carries {@link CacheInvalidationBus} messages between instances. Delivery is best effort: a transport that may have
+ * dropped messages reports it through {@link Listener#onGap()}, and the bus then falls back to version checks.
+ */
+public interface InvalidationTransport {
+    /**
+     * Longest payload {@link #send} accepts, in characters.
+     */
+    int maxPayloadLength();
+
+    /**
+     * Sends {@code payload} to every instance listening, possibly including this one.
+     */
+    void send(String payload);
+
+    void start(Listener listener);
+
+    void stop();
+
+    interface Listener {
+        void onMessage(String payload);
+
+        /**
+         * Messages may have been lost, for example while the transport was reconnecting.
+         */
+        void onGap();
+    }
+}
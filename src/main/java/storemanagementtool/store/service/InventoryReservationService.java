@@ -0,0 +1,200 @@
+package storemanagementtool.store.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ReservationDto;
+import storemanagementtool.store.exception.custom.ProductOutOfStockException;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived stock holds for flash sales. Available stock of every product with outstanding holds is kept in memory by
+ * a {@link StockTracker}, so placing and releasing holds never touches the product row. Only confirming a hold writes,
+ * through {@link ProductService#buyProduct}, whose conditional update stays the guard against overselling.
+ * <p>
+ * A product is tracked only while it has holds, so memory follows the holds outstanding rather than every product
+ * ever reserved. Holds expire in coarse buckets of {@code expiry-tick}: a timing wheel with one slot per tick of the
+ * TTL, swept by a single thread, so a hold costs one queue append rather than a scheduled task, and expires between
+ * one and two ticks after its TTL.
+ */
+@Service
+public class InventoryReservationService {
+    private final ProductService productService;
+    private final Duration holdTtl;
+    private final StockTracker stock;
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private final long tickNanos;
+    private final long ttlTicks;
+    private final Queue<Hold>[] expiryWheel;
+    /** Next tick to sweep; only touched by the expiry thread. */
+    private long sweptTick;
+    private final ScheduledExecutorService expiryTicker;
+
+    @SuppressWarnings("unchecked")
+    public InventoryReservationService(ProductRepository productRepository, ProductService productService,
+                                       @Value("${application.reservation.hold-ttl:2m}") Duration holdTtl,
+                                       @Value("${application.reservation.stripes:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int stripes,
+                                       @Value("${application.reservation.expiry-tick:1s}") Duration expiryTick) {
+        this.productService = productService;
+        this.holdTtl = holdTtl;
+        this.stock = new StockTracker(productRepository, stripes, 0);
+        this.tickNanos = expiryTick.toNanos();
+        this.ttlTicks = Math.max(1, (holdTtl.toNanos() + tickNanos - 1) / tickNanos);
+        this.expiryWheel = new Queue[Math.toIntExact(ttlTicks + 2)];
+        for (int i = 0; i < expiryWheel.length; i++) {
+            expiryWheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.expiryTicker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expiryTicker.scheduleAtFixedRate(this::expireDue, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public ReservationDto reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to reserve must be greater than zero.");
+        }
+        StockTracker.Pin pin = stock.take(productId, quantity);
+        if (pin == null) {
+            throw new ProductOutOfStockException("Product with id " + productId + " out of stock");
+        }
+        Hold hold = new Hold(UUID.randomUUID(), productId, quantity, Instant.now().plus(holdTtl), pin, currentTick() + ttlTicks);
+        holds.put(hold.id, hold);
+        expiryWheel[(int) (hold.expiryTick % expiryWheel.length)].add(hold);
+        return hold.toDto();
+    }
+
+    /**
+     * Turns a hold into a purchase. The hold is consumed even when the purchase fails, since its stock is then
+     * known not to exist in the database. Its units stay pinned until the purchase has committed, so no reseed in
+     * between counts them as both in the database and free.
+     */
+    public ProductDto confirm(UUID reservationId) {
+        Hold hold = take(reservationId);
+        ProductDto bought;
+        try {
+            bought = productService.buyProduct(hold.productId, hold.quantity);
+        } catch (RuntimeException e) {
+            stock.consume(hold.pin);
+            if (e instanceof ProductOutOfStockException || e instanceof NoSuchElementException) {
+                // memory counted stock the database no longer has
+                stock.markStale(hold.productId);
+            }
+            throw e;
+        }
+        if (bought.getVersion() == null) {
+            stock.consume(hold.pin);
+        } else {
+            stock.consume(hold.pin, bought.getVersion());
+        }
+        return bought;
+    }
+
+    public void cancel(UUID reservationId) {
+        stock.release(take(reservationId).pin);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        stock.onProductChanged(event);
+    }
+
+    @EventListener
+    public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+        stock.onProductsInvalidated(event);
+    }
+
+    long available(Long productId) {
+        return stock.available(productId);
+    }
+
+    boolean isTracked(Long productId) {
+        return stock.isTracked(productId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        expiryTicker.shutdownNow();
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    /**
+     * Sweeps every slot whose tick has fully passed. Confirmed and cancelled holds are skipped; a hold that landed in
+     * a slot a whole turn early, because the sweep lagged, goes back for the next turn.
+     */
+    private void expireDue() {
+        long lastPassed = currentTick() - 1;
+        for (; sweptTick <= lastPassed; sweptTick++) {
+            Queue<Hold> slot = expiryWheel[(int) (sweptTick % expiryWheel.length)];
+            List<Hold> notDue = new ArrayList<>();
+            Hold hold;
+            while ((hold = slot.poll()) != null) {
+                if (hold.expiryTick > sweptTick) {
+                    notDue.add(hold);
+                } else if (holds.remove(hold.id, hold)) {
+                    stock.release(hold.pin);
+                }
+            }
+            slot.addAll(notDue);
+        }
+    }
+
+    private Hold take(UUID reservationId) {
+        Hold hold = holds.remove(reservationId);
+        if (hold == null) {
+            throw new NoSuchElementException("Reservation " + reservationId + " not found or expired.");
+        }
+        return hold;
+    }
+
+    private static final class Hold {
+        private final UUID id;
+        private final Long productId;
+        private final int quantity;
+        private final Instant expiresAt;
+        private final StockTracker.Pin pin;
+        private final long expiryTick;
+
+        private Hold(UUID id, Long productId, int quantity, Instant expiresAt, StockTracker.Pin pin, long expiryTick) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+            this.pin = pin;
+            this.expiryTick = expiryTick;
+        }
+
+        private ReservationDto toDto() {
+            return ReservationDto.builder()
+                    .id(id)
+                    .productId(productId)
+                    .quantity(quantity)
+                    .expiresAt(expiresAt)
+                    .build();
+        }
+    }
+}
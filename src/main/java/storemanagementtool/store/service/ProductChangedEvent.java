@@ -0,0 +1,13 @@
+package storemanagementtool.store.service;
+
+import storemanagementtool.store.dto.ProductDto;
+
+import java.util.List;
+
+/**
+ * Published by {@link ProductService} for every write to product rows, with the products as they were written.
+ * Listeners that react to committed state should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener} so rolled-back writes are never seen.
+ */
+public record ProductChangedEvent(List<ProductDto> products) {
+}
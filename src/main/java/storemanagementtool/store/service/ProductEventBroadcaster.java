@@ -0,0 +1,281 @@
+package storemanagementtool.store.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import storemanagementtool.store.dto.ProductChangeDto;
+import storemanagementtool.store.dto.ProductDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed product changes to Server-Sent Events subscribers.
+ * <p>
+ * The committing thread only records each change in the pending buffer of every interested subscriber and hands
+ * the subscriber to a small sender pool; it never writes to a socket. Buffers keep the latest change per product,
+ * so a subscriber that falls behind receives fewer, newer events instead of a growing backlog, and one whose
+ * buffer still exceeds {@code max-pending} products is disconnected; a filtered buffer never outgrows its filter, so
+ * the limit is capped at the filter size. Writes to a socket block, so a send still running after
+ * {@code write-timeout} is interrupted and its subscriber disconnected, before a few stalled clients can hold every
+ * sender thread. Subscribers filtered to product ids are indexed by id, so a write only visits the subscribers that
+ * care about it.
+ */
+@Component
+public class ProductEventBroadcaster {
+    public static final String EVENT_NAME = "products";
+    public static final int MAX_FILTER_IDS = 1000;
+
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byProductId = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService heartbeat;
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final long emitterTimeoutMs;
+    private final long writeTimeoutNanos;
+
+    public ProductEventBroadcaster(@Value("${application.product.events.max-subscribers:10000}") int maxSubscribers,
+                                   @Value("${application.product.events.max-pending:10000}") int maxPending,
+                                   @Value("${application.product.events.sender-threads:4}") int senderThreads,
+                                   @Value("${application.product.events.timeout:30m}") Duration emitterTimeout,
+                                   @Value("${application.product.events.heartbeat-interval:30s}") Duration heartbeatInterval,
+                                   @Value("${application.product.events.write-timeout:10s}") Duration writeTimeout) {
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        this.emitterTimeoutMs = emitterTimeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        // each subscriber has at most one drain queued, so the queue never needs to hold more than maxSubscribers
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxSubscribers), daemonThreads("product-events-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("product-events-heartbeat"));
+        // keeps idle connections open through proxies and finds clients that went away
+        this.heartbeat.scheduleAtFixedRate(this::requestHeartbeats, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long stallCheckMs = Math.max(1, writeTimeout.toMillis() / 2);
+        this.heartbeat.scheduleAtFixedRate(this::disconnectStalled, stallCheckMs, stallCheckMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of changes to the given products, or to all products when {@code productIds} is empty.
+     *
+     * @throws RejectedExecutionException if the node already serves {@code max-subscribers} streams
+     */
+    public SseEmitter subscribe(Collection<Long> productIds) {
+        if (productIds.size() > MAX_FILTER_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_FILTER_IDS + " product ids can be watched per stream.");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many event subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(productIds));
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+        if (subscriber.productIds.isEmpty()) {
+            unfiltered.add(subscriber);
+        } else {
+            subscriber.productIds.forEach(id -> byProductId.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (ProductDto product : event.products()) {
+            ProductChangeDto change = ProductChangeDto.builder()
+                    .id(product.getId())
+                    .price(product.getPrice())
+                    .quantity(product.getQuantity())
+                    .version(product.getVersion())
+                    .build();
+            unfiltered.forEach(subscriber -> subscriber.offer(change));
+            Set<Subscriber> watchers = byProductId.get(product.getId());
+            if (watchers != null) {
+                watchers.forEach(subscriber -> subscriber.offer(change));
+            }
+        }
+    }
+
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    private void requestHeartbeats() {
+        unfiltered.forEach(Subscriber::requestHeartbeat);
+        byProductId.values().forEach(watchers -> watchers.forEach(Subscriber::requestHeartbeat));
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        unfiltered.forEach(subscriber -> subscriber.interruptIfStalled(now));
+        byProductId.values().forEach(watchers -> watchers.forEach(subscriber -> subscriber.interruptIfStalled(now)));
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.registered.compareAndSet(true, false)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        unfiltered.remove(subscriber);
+        for (Long id : subscriber.productIds) {
+            byProductId.computeIfPresent(id, (key, watchers) -> {
+                watchers.remove(subscriber);
+                return watchers.isEmpty() ? null : watchers;
+            });
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final int pendingLimit;
+        private final Map<Long, ProductChangeDto> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        /** Guards the two fields below, so a stalled sender is only interrupted while still inside its send. */
+        private final Object sendLock = new Object();
+        private Thread sendingThread;
+        private long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.pendingLimit = productIds.isEmpty() ? maxPending : Math.min(maxPending, productIds.size());
+        }
+
+        private void offer(ProductChangeDto change) {
+            // commits can be delivered out of order; keep whichever change is newer
+            pending.merge(change.getId(), change, (queued, incoming) ->
+                    incoming.getVersion() == null || queued.getVersion() == null
+                            || incoming.getVersion() >= queued.getVersion() ? incoming : queued);
+            if (pending.size() > pendingLimit) {
+                disconnect();
+                return;
+            }
+            schedule();
+        }
+
+        private void requestHeartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (registered.get() && scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (registered.get()) {
+                    List<ProductChangeDto> batch = new ArrayList<>(pending.size());
+                    for (Long id : pending.keySet()) {
+                        ProductChangeDto change = pending.remove(id);
+                        if (change != null) {
+                            batch.add(change);
+                        }
+                    }
+                    boolean sendHeartbeat = heartbeatDue.getAndSet(false);
+                    if (!batch.isEmpty()) {
+                        send(SseEmitter.event().name(EVENT_NAME).data(batch, MediaType.APPLICATION_JSON));
+                    } else if (sendHeartbeat) {
+                        send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        scheduled.set(false);
+                        // a change offered after the swap above but before the flag was cleared would be stranded
+                        if ((pending.isEmpty() && !heartbeatDue.get()) || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // client went away, the send was interrupted, or the emitter already completed
+                unregister(this);
+                return;
+            }
+            // disconnected elsewhere while this drain was running; the emitter is free again to be completed here
+            disconnect();
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (sendLock) {
+                sendingThread = Thread.currentThread();
+                sendStartedNanos = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (sendLock) {
+                    sendingThread = null;
+                }
+                if (!registered.get()) {
+                    // an interrupt aimed at a send that returned anyway must not leak into the next drain
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private void interruptIfStalled(long now) {
+            synchronized (sendLock) {
+                if (sendingThread != null && now - sendStartedNanos > writeTimeoutNanos) {
+                    // completing the emitter would wait for the blocked send; unblock the send and let drain finish
+                    unregister(this);
+                    sendingThread.interrupt();
+                }
+            }
+        }
+
+        private void disconnect() {
+            unregister(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // already completed
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package storemanagementtool.store.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import storemanagementtool.store.dto.ExportFormat;
+import storemanagementtool.store.mapper.ProductCsvFormat;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ProductExportService {
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductCsvFormat productCsvFormat;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public ProductExportService(ProductRepository productRepository, ProductMapper productMapper, ProductCsvFormat productCsvFormat,
+                                ObjectMapper objectMapper, EntityManager entityManager) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productCsvFormat = productCsvFormat;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportProducts(ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        // generator.flush() only hands rows to the buffered writer; the writer decides when to hit the socket
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .setRootValueSeparator(null);
+        if (format == ExportFormat.CSV) {
+            productCsvFormat.writeHeader(writer);
+        } else if (format == ExportFormat.JSON) {
+            generator.writeStartArray();
+        }
+        boolean first = true;
+        try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    productCsvFormat.writeRow(writer, productMapper.convertToDto(product));
+                } else if (format == ExportFormat.JSON) {
+                    objectMapper.writeValue(generator, productMapper.convertToDto(product));
+                } else {
+                    objectMapper.writeValue(generator, productMapper.convertToDto(product));
+                    generator.writeRaw('\n');
+                    generator.flush();
+                }
+                // rows are never touched again, so keep the persistence context from growing with the table
+                entityManager.detach(product);
+                if (first) {
+                    generator.flush();
+                    writer.flush();
+                    first = false;
+                }
+            }
+        }
+        if (format == ExportFormat.JSON) {
+            generator.writeEndArray();
+        }
+        generator.flush();
+        writer.flush();
+    }
+}
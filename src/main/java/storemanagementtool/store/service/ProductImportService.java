@@ -0,0 +1,208 @@
+package storemanagementtool.store.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.dto.ImportRowError;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductImportResponse;
+import storemanagementtool.store.mapper.ProductCsvFormat;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads large product files row by row. Valid rows are saved in chunks of {@code batchSize}, each chunk in its
+ * own transaction and sent as JDBC batches; invalid or unsaveable rows are reported without stopping the load.
+ */
+@Service
+public class ProductImportService {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductCsvFormat productCsvFormat;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.product.import.batch-size:500}")
+    private int batchSize;
+
+    public ProductImportService(ProductRepository productRepository, ProductMapper productMapper, ProductCsvFormat productCsvFormat,
+                                ObjectMapper objectMapper, Validator validator, EntityManager entityManager,
+                                TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productCsvFormat = productCsvFormat;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public ProductImportResponse importJson(InputStream inputStream) throws IOException {
+        ImportRun run = new ImportRun();
+        long row = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products.");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    run.add(row, objectMapper.treeToValue(node, ProductDto.class));
+                } catch (JsonProcessingException e) {
+                    run.reject(row, e.getOriginalMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // the stream itself is broken, so nothing after this point can be read
+            run.reject(row + 1, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+        return run.finish();
+    }
+
+    public ProductImportResponse importCsv(InputStream inputStream) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<String> header = productCsvFormat.readRecord(reader);
+        if (header == null) {
+            return run.finish();
+        }
+        int nameColumn = header.indexOf("name");
+        int priceColumn = header.indexOf("price");
+        int quantityColumn = header.indexOf("quantity");
+        if (nameColumn < 0 || priceColumn < 0 || quantityColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain name, price and quantity columns.");
+        }
+        long row = 0;
+        List<String> record;
+        while ((record = productCsvFormat.readRecord(reader)) != null) {
+            row++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                run.reject(row, "Expected " + header.size() + " columns but found " + record.size() + ".");
+                continue;
+            }
+            try {
+                run.add(row, ProductDto.builder()
+                        .name(record.get(nameColumn))
+                        .price(parseOrNull(record.get(priceColumn), Double::valueOf))
+                        .quantity(parseOrNull(record.get(quantityColumn), Integer::valueOf))
+                        .build());
+            } catch (NumberFormatException e) {
+                run.reject(row, "Invalid number: " + e.getMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    private static <T> T parseOrNull(String value, Function<String, T> parser) {
+        return value.isBlank() ? null : parser.apply(value.trim());
+    }
+
+    private void saveChunk(List<Product> products) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            productRepository.saveAll(products);
+            entityManager.flush();
+            entityManager.clear();
+            eventPublisher.publishEvent(new ProductChangedEvent(products.stream()
+                    .map(productMapper::convertToDto)
+                    .toList()));
+        });
+    }
+
+    private class ImportRun {
+        private final List<Product> chunk = new ArrayList<>(batchSize);
+        private final List<Long> chunkRows = new ArrayList<>(batchSize);
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void add(long row, ProductDto productDto) {
+            Set<ConstraintViolation<ProductDto>> violations = validator.validate(productDto);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" ")));
+                return;
+            }
+            productDto.setId(null);
+            chunk.add(productMapper.convertToEntity(productDto));
+            chunkRows.add(row);
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(row, message));
+            }
+        }
+
+        ProductImportResponse finish() {
+            flush();
+            return ProductImportResponse.builder()
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .build();
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                saveChunk(List.copyOf(chunk));
+                imported += chunk.size();
+            } catch (RuntimeException chunkFailure) {
+                // one bad row rolls back the whole chunk; retry row by row to find which ones really fail
+                for (int i = 0; i < chunk.size(); i++) {
+                    Product product = chunk.get(i);
+                    product.setId(null);
+                    try {
+                        saveChunk(List.of(product));
+                        imported++;
+                    } catch (RuntimeException rowFailure) {
+                        reject(chunkRows.get(i), "Could not be saved: " + rowFailure.getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            chunkRows.clear();
+        }
+    }
+}
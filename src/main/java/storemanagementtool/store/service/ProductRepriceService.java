@@ -0,0 +1,152 @@
+package storemanagementtool.store.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.dto.BulkRepriceRequest;
+import storemanagementtool.store.dto.BulkRepriceResponse;
+import storemanagementtool.store.dto.PriceChange;
+import storemanagementtool.store.dto.PriceRounding;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Reprices many products without loading them. Work is split into chunks of {@code chunkSize} products in ascending
+ * id order; each chunk is one set-based UPDATE (or one JDBC batch for absolute prices) in its own transaction, so
+ * row locks are held briefly and a failure only loses the chunk in flight. Every write bumps the version and change
+ * sequence like a single-product update, and each chunk evicts its cache entries and publishes a
+ * {@link ProductChangedEvent} on commit.
+ */
+@Service
+public class ProductRepriceService {
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.product.reprice.chunk-size:1000}")
+    private int chunkSize;
+
+    public ProductRepriceService(ProductRepository productRepository, ProductMapper productMapper, CacheManager cacheManager,
+                                 TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public BulkRepriceResponse reprice(BulkRepriceRequest request) {
+        boolean absolute = request.getPrices() != null;
+        boolean adjustment = request.getPercentChange() != null || request.getRounding() != null;
+        boolean priceRange = request.getMinPrice() != null || request.getMaxPrice() != null;
+        if (absolute == adjustment) {
+            throw new IllegalArgumentException("Give either absolute prices or a percent change and/or rounding.");
+        }
+        if (absolute && (request.getIds() != null || priceRange)) {
+            throw new IllegalArgumentException("Absolute prices cannot be combined with ids or a price range.");
+        }
+        if (request.getIds() != null && priceRange) {
+            throw new IllegalArgumentException("Give either product ids or a price range, not both.");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null && request.getMinPrice() > request.getMaxPrice()) {
+            throw new IllegalArgumentException("Minimum price must not be greater than maximum price.");
+        }
+        long updated = absolute ? setPrices(request.getPrices()) : adjustPrices(request);
+        return BulkRepriceResponse.builder()
+                .updated(updated)
+                .build();
+    }
+
+    private long setPrices(List<PriceChange> prices) {
+        // a repeated id keeps its last price
+        SortedMap<Long, Double> pricesById = new TreeMap<>();
+        prices.forEach(change -> pricesById.put(change.getProductId(), change.getPrice()));
+        long updated = 0;
+        SortedMap<Long, Double> chunk = new TreeMap<>();
+        for (Map.Entry<Long, Double> entry : pricesById.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == chunkSize) {
+                updated += setPriceChunk(chunk);
+                chunk = new TreeMap<>();
+            }
+        }
+        return chunk.isEmpty() ? updated : updated + setPriceChunk(chunk);
+    }
+
+    private int setPriceChunk(SortedMap<Long, Double> chunk) {
+        return inChunkTransaction(chunk.keySet(), () -> {
+            int updated = 0;
+            for (int count : productRepository.updatePrices(chunk)) {
+                updated += count > 0 ? 1 : 0;
+            }
+            return updated;
+        });
+    }
+
+    private long adjustPrices(BulkRepriceRequest request) {
+        double factor = request.getPercentChange() == null ? 1.0 : 1.0 + request.getPercentChange() / 100.0;
+        PriceRounding rounding = request.getRounding() == null ? PriceRounding.NONE : request.getRounding();
+        double minPrice = request.getMinPrice() == null ? -Double.MAX_VALUE : request.getMinPrice();
+        double maxPrice = request.getMaxPrice() == null ? Double.MAX_VALUE : request.getMaxPrice();
+        long updated = 0;
+        if (request.getIds() != null) {
+            List<Long> ids = request.getIds().stream().distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                updated += inChunkTransaction(chunk,
+                        () -> productRepository.adjustPrices(chunk, factor, rounding, minPrice, maxPrice));
+            }
+            return updated;
+        }
+        long after = ProductService.FIRST_CURSOR;
+        while (true) {
+            // the range is checked again by the UPDATE, in case a price moved since the page was read
+            List<Long> chunk = productRepository.findIdsInPriceRange(after, minPrice, maxPrice, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                return updated;
+            }
+            updated += inChunkTransaction(chunk,
+                    () -> productRepository.adjustPrices(chunk, factor, rounding, minPrice, maxPrice));
+            if (chunk.size() < chunkSize) {
+                return updated;
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+    }
+
+    private int inChunkTransaction(Collection<Long> ids, IntSupplier update) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = update.getAsInt();
+            if (count == 0) {
+                return 0;
+            }
+            // the cache manager is transaction-aware, so evictions happen once this chunk commits
+            Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (productCache != null) {
+                ids.forEach(productCache::evict);
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(productRepository.findAllById(ids).stream()
+                    .sorted(Comparator.comparing(Product::getId))
+                    .map(productMapper::convertToDto)
+                    .toList()));
+            return count;
+        });
+        return updated == null ? 0 : updated;
+    }
+}
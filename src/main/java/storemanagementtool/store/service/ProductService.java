@@ -1,28 +1,69 @@
 package storemanagementtool.store.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.config.RetryConfig;
+import storemanagementtool.store.dto.CatalogVersion;
+import storemanagementtool.store.dto.CheckoutLine;
+import storemanagementtool.store.dto.ProductChangesDto;
 import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductPageDto;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductSearchResponse;
+import storemanagementtool.store.dto.ProductSortField;
 import storemanagementtool.store.exception.custom.ProductOutOfStockException;
 import storemanagementtool.store.mapper.ProductMapper;
 import storemanagementtool.store.model.Product;
 import storemanagementtool.store.repository.ProductRepository;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "product.service", histogram = true)
 public class ProductService {
+    public static final long FIRST_CURSOR = 0L;
+    public static final int MAX_PAGE_SIZE = 1000;
+    /** Deepest row a search page may start at; the database reads and discards every row before it. */
+    public static final int MAX_SEARCH_OFFSET = 10_000;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final CacheManager cacheManager;
+    private final StockWriteBehind stockWriteBehind;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper, CacheManager cacheManager,
+                          StockWriteBehind stockWriteBehind, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.cacheManager = cacheManager;
+        this.stockWriteBehind = stockWriteBehind;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
     @Transactional(readOnly = true)
     public ProductDto findProductById(Long id) {
         return productRepository.findById(id)
@@ -30,37 +71,214 @@ public class ProductService {
                 .orElseThrow(() -> new NoSuchElementException("Product with id " + id + " not found."));
     }
 
+    /**
+     * Current version of a single product, read without loading the entity so that conditional requests can be
+     * answered from the index alone. A cached product answers without any query; the cache is evicted on every
+     * committed write, so it is never older than what {@link #findProductById} would serve.
+     */
+    public long findProductVersion(Long id) {
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        ProductDto cached = productCache == null ? null : productCache.get(id, ProductDto.class);
+        if (cached != null && cached.getVersion() != null) {
+            return cached.getVersion();
+        }
+        return productRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Product with id " + id + " not found."));
+    }
+
     @Transactional(readOnly = true)
-    public List<ProductDto> getAllProducts() {
-        List<ProductDto> products = productRepository.findAll().stream()
-                .map(productMapper::convertToDto)
-                .collect(Collectors.toList());
-        if (products.isEmpty()) {
-            throw new NoSuchElementException("No products available.");
+    public CatalogVersion getCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPageDto getProducts(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after == null ? FIRST_CURSOR : after;
+        // one extra row tells us whether another page exists without a count query
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return ProductPageDto.builder()
+                .products(page.stream()
+                        .map(productMapper::convertToDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Products written after {@code since}, in order of their writing transaction. Only transactions below the oldest
+     * one still running are read, so no write can commit behind a token once it is handed out, and nothing has to
+     * be sent twice. A token is {@code <txid>.<id>}: the position after the last product returned, or the horizon
+     * itself once the client has caught up.
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesDto getProductChanges(String since, int limit) {
+        long[] token = parseChangeToken(since);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long horizon = productRepository.findChangeHorizon();
+        List<Product> rows = productRepository.findChangesAfter(token[0], token[1], horizon, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextToken;
+        if (hasMore) {
+            Product last = page.get(page.size() - 1);
+            nextToken = last.getChangeTxid() + "." + last.getId();
+        } else {
+            // everything below the horizon has been read; a horizon behind the token means it was handed out already
+            nextToken = horizon > token[0] ? horizon + "." + FIRST_CURSOR : token[0] + "." + token[1];
+        }
+        return ProductChangesDto.builder()
+                .products(page.stream()
+                        .map(productMapper::convertToDto)
+                        .collect(Collectors.toList()))
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static long[] parseChangeToken(String token) {
+        if (token == null || token.isBlank()) {
+            return new long[]{FIRST_CURSOR, FIRST_CURSOR};
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Invalid change token: " + token);
+        }
+        try {
+            long[] position = {Long.parseLong(token.substring(0, dot)), Long.parseLong(token.substring(dot + 1))};
+            if (position[0] < 0 || position[1] < 0) {
+                throw new IllegalArgumentException("Invalid change token: " + token);
+            }
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid change token: " + token);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSearchResponse searchProducts(ProductSearchCriteria criteria, int page, int size,
+                                                ProductSortField sortField, Sort.Direction direction) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative.");
+        }
+        if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null && criteria.getMinPrice() > criteria.getMaxPrice()) {
+            throw new IllegalArgumentException("Minimum price must not be greater than maximum price.");
+        }
+        if (criteria.getMinQuantity() != null && criteria.getMaxQuantity() != null && criteria.getMinQuantity() > criteria.getMaxQuantity()) {
+            throw new IllegalArgumentException("Minimum quantity must not be greater than maximum quantity.");
         }
-        return products;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if ((long) page * pageSize > MAX_SEARCH_OFFSET) {
+            throw new IllegalArgumentException("Search pages may not start past row " + MAX_SEARCH_OFFSET + "; narrow the filters instead.");
+        }
+        Slice<Product> slice = productRepository.search(criteria,
+                PageRequest.of(page, pageSize, Sort.by(direction, sortField.getProperty())));
+        return ProductSearchResponse.builder()
+                .products(slice.getContent().stream()
+                        .map(productMapper::convertToDto)
+                        .collect(Collectors.toList()))
+                .page(page)
+                .size(pageSize)
+                .hasNext(slice.hasNext())
+                .build();
     }
 
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
     @Transactional(propagation = Propagation.REQUIRED)
     public ProductDto addProduct(ProductDto productDto) {
-        return productMapper.convertToDto(productRepository.save(productMapper.convertToEntity(productDto)));
+        Product product = productMapper.convertToEntity(productDto);
+        // ids come from the sequence; a client-supplied one would make save() treat the row as detached
+        product.setId(null);
+        ProductDto added = productMapper.convertToDto(productRepository.save(product));
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(added)));
+        return added;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * The versioned update fails if another writer committed in between; the whole read-modify-write is then
+     * retried in a new transaction with jittered backoff, and the conflict surfaces only once attempts run out.
+     */
+    @Retryable(retryFor = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${application.product.retry.max-attempts:4}",
+            backoff = @Backoff(delayExpression = "${application.product.retry.delay-ms:10}",
+                    maxDelayExpression = "${application.product.retry.max-delay-ms:200}",
+                    multiplier = 2, random = true),
+            listeners = RetryConfig.OPTIMISTIC_LOCK_RETRY_LISTENER)
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+    @Transactional(propagation = Propagation.REQUIRED)
     public ProductDto updateProductPrice(Long id, Double newPrice) {
         Product product = productRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Product with id " + id + " not found."));
         product.setPrice(newPrice);
-        return productMapper.convertToDto(productRepository.save(product));
+        // flushed now so the published version is the one committed
+        ProductDto updated = productMapper.convertToDto(productRepository.saveAndFlush(product));
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(updated)));
+        return updated;
     }
 
-    @Transactional(propagation = Propagation.REQUIRED)
+    /**
+     * Not transactional itself: with write-behind enabled the caller waits for a group commit, and must not hold a
+     * connection meanwhile. Otherwise the guarded decrement commits on its own.
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
     public ProductDto buyProduct(Long productId, int quantityToBuy) {
-        Product product = productRepository.findById(productId).orElseThrow(() -> new NoSuchElementException("Product with id " + productId + " not found."));
-        int newQuantity = product.getQuantity() - quantityToBuy;
-        if (newQuantity < 0) {
+        if (quantityToBuy <= 0) {
+            throw new IllegalArgumentException("Quantity to buy must be greater than zero.");
+        }
+        if (stockWriteBehind.isEnabled()) {
+            stockWriteBehind.decrement(productId, quantityToBuy);
+        } else if (productRepository.decrementQuantity(productId, quantityToBuy) == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new NoSuchElementException("Product with id " + productId + " not found.");
+            }
             throw new ProductOutOfStockException("Product out of stock");
         }
-        product.setQuantity(newQuantity);
-        return productMapper.convertToDto(productRepository.save(product));
+        ProductDto bought = productRepository.findById(productId)
+                .map(productMapper::convertToDto)
+                .orElseThrow(() -> new NoSuchElementException("Product with id " + productId + " not found."));
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(bought)));
+        return bought;
+    }
+
+    /**
+     * Buys every line of a cart all-or-nothing. Lines for the same product are merged and rows are updated
+     * in ascending id order, so concurrent carts always lock shared products in the same order.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<ProductDto> checkout(List<CheckoutLine> lines) {
+        SortedMap<Long, Integer> quantitiesById = new TreeMap<>();
+        for (CheckoutLine line : lines) {
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity to buy must be greater than zero.");
+            }
+            try {
+                quantitiesById.merge(line.getProductId(), line.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                // a wrapped, negative total would pass the stock guard and add stock instead
+                throw new IllegalArgumentException("Total quantity of product " + line.getProductId() + " is too large.");
+            }
+        }
+        int[] updateCounts = productRepository.decrementQuantities(quantitiesById);
+        int index = 0;
+        for (Map.Entry<Long, Integer> entry : quantitiesById.entrySet()) {
+            if (updateCounts[index++] == 0) {
+                Long productId = entry.getKey();
+                if (!productRepository.existsById(productId)) {
+                    throw new NoSuchElementException("Product with id " + productId + " not found.");
+                }
+                throw new ProductOutOfStockException("Product with id " + productId + " out of stock");
+            }
+        }
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (productCache != null) {
+            quantitiesById.keySet().forEach(productCache::evict);
+        }
+        List<ProductDto> bought = productRepository.findAllById(quantitiesById.keySet()).stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .map(productMapper::convertToDto)
+                .collect(Collectors.toList());
+        eventPublisher.publishEvent(new ProductChangedEvent(bought));
+        return bought;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package storemanagementtool.store.service;
+
+import java.util.Set;
+
+/**
+ * Published on this instance when another instance committed product writes. {@code productIds} is empty when the
+ * changed products are unknown because invalidation messages may have been lost.
+ */
+public record ProductsInvalidatedEvent(Set<Long> productIds) {
+}
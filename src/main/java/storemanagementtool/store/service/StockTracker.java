@@ -0,0 +1,353 @@
+package storemanagementtool.store.service;
+
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory available stock of products, for services that take units ahead of the database write. Each product's
+ * stock is a {@link StripedStock} seeded from the database minus the units pinned (taken, or about to be, and not yet
+ * written), and reseeded from every newer committed write; writes elsewhere mark it stale, and the next take re-reads
+ * it.
+ * <p>
+ * Taking and returning units never locks: a pin is counted on one striped cell and the units are taken from the
+ * stripes directly. A reseed seals every cell of the current seed before summing them, so each pin is counted by
+ * exactly one seed, and a pin that hits a sealed cell waits for the replacement seed and counts there instead. Only
+ * reseeds, stale marks and dropping an idle product take the per-product lock, and the database read of a stale or new
+ * product runs outside it, once, with every concurrent taker waiting on the same load.
+ * <p>
+ * A product without pins is dropped when stale, or when more than {@code maxIdleProducts} are tracked.
+ */
+final class StockTracker {
+    private static final long SEALED = Long.MIN_VALUE;
+    private static final Seed RETIRED = Seed.retired();
+
+    private final ProductRepository productRepository;
+    private final int stripes;
+    private final int maxIdleProducts;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    StockTracker(ProductRepository productRepository, int stripes, int maxIdleProducts) {
+        this.productRepository = productRepository;
+        this.stripes = stripes;
+        this.maxIdleProducts = maxIdleProducts;
+    }
+
+    /**
+     * Takes {@code quantity} units of the product, reading it from the database first if it is new or stale. Returns
+     * the pin to settle once the units are written or given back, or {@code null} when there is not enough stock.
+     */
+    Pin take(Long productId, int quantity) {
+        while (true) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                entry = entries.computeIfAbsent(productId, Entry::new);
+            }
+            Seed seed = entry.seed;
+            if (seed == RETIRED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (seed == null || seed.stale) {
+                load(entry);
+                continue;
+            }
+            if (!seed.add(quantity)) {
+                // being reseeded
+                Thread.onSpinWait();
+                continue;
+            }
+            Pin pin = new Pin(entry, seed.stock, quantity);
+            if (seed.stock.tryTake(quantity)) {
+                return pin;
+            }
+            unpin(pin, Settlement.NOT_TAKEN, 0);
+            return null;
+        }
+    }
+
+    /** The pinned units were not written and go back to the stock. */
+    void release(Pin pin) {
+        unpin(pin, Settlement.RELEASED, 0);
+    }
+
+    /**
+     * The pinned units were written by a commit whose version is unknown. Until the next reseed they may be missing
+     * from the stock twice, which errs on the side of refusing a purchase.
+     */
+    void consume(Pin pin) {
+        unpin(pin, Settlement.CONSUMED, Long.MAX_VALUE);
+    }
+
+    /** The pinned units were written by the commit that produced {@code committedVersion}. */
+    void consume(Pin pin, long committedVersion) {
+        unpin(pin, Settlement.CONSUMED, committedVersion);
+    }
+
+    void onProductChanged(ProductChangedEvent event) {
+        for (ProductDto product : event.products()) {
+            Entry entry = product.getQuantity() == null ? null : entries.get(product.getId());
+            if (entry == null) {
+                continue;
+            }
+            // events of concurrent writes can arrive in either order; only a newer version replaces the seed
+            long version = product.getVersion() == null ? 0 : product.getVersion();
+            entry.lock.lock();
+            try {
+                if (entry.seed != RETIRED && version > entry.version) {
+                    reseed(entry, product.getQuantity(), version);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    void onProductsInvalidated(ProductsInvalidatedEvent event) {
+        if (event.productIds().isEmpty()) {
+            entries.keySet().forEach(this::markStale);
+        } else {
+            event.productIds().forEach(this::markStale);
+        }
+    }
+
+    void markStale(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            return;
+        }
+        entry.lock.lock();
+        try {
+            entry.staleMarks++;
+            if (entry.seed != null && entry.seed != RETIRED) {
+                entry.seed.stale = true;
+            }
+        } finally {
+            entry.lock.unlock();
+        }
+        retireIfIdle(entry);
+    }
+
+    long available(Long productId) {
+        Entry entry = entries.get(productId);
+        Seed seed = entry == null ? null : entry.seed;
+        return seed == null || seed == RETIRED || seed.stale ? 0 : seed.stock.available();
+    }
+
+    boolean isTracked(Long productId) {
+        return entries.containsKey(productId);
+    }
+
+    /**
+     * Counts the pin out of the current seed and decides whether its units belong in that seed's stock. A seed built
+     * after the pin left its units out, as they were counted as pinned.
+     */
+    private void unpin(Pin pin, Settlement settlement, long committedVersion) {
+        while (true) {
+            Seed seed = pin.entry.seed;
+            if (!seed.add(-pin.quantity)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            boolean leftOut = seed.stock != pin.stock;
+            boolean giveBack = switch (settlement) {
+                case RELEASED -> true;
+                case NOT_TAKEN -> leftOut;
+                // the seed already misses the written units when it was read at or after the commit
+                case CONSUMED -> leftOut && seed.version >= committedVersion;
+            };
+            if (giveBack) {
+                seed.stock.put(pin.quantity);
+            }
+            break;
+        }
+        retireIfIdle(pin.entry);
+    }
+
+    /**
+     * Reads the product from the database, or waits for the read another taker already started, and seeds it unless a
+     * newer write or a stale mark overtook the read. The caller retries either way.
+     */
+    private void load(Entry entry) {
+        CompletableFuture<Void> loading = new CompletableFuture<>();
+        CompletableFuture<Void> running = entry.loading.compareAndExchange(null, loading);
+        if (running == null) {
+            try {
+                long staleMarks = entry.staleMarks;
+                Product product = productRepository.findById(entry.productId)
+                        .orElseThrow(() -> new NoSuchElementException("Product with id " + entry.productId + " not found."));
+                long version = product.getVersion() == null ? 0 : product.getVersion();
+                entry.lock.lock();
+                try {
+                    if (entry.seed != RETIRED && entry.staleMarks == staleMarks && version >= entry.version) {
+                        reseed(entry, product.getQuantity(), version);
+                    }
+                } finally {
+                    entry.lock.unlock();
+                }
+                loading.complete(null);
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                retireUnloaded(entry);
+            } finally {
+                entry.loading.set(null);
+            }
+            running = loading;
+        }
+        try {
+            running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Must hold the entry's lock. */
+    private void reseed(Entry entry, int quantity, long version) {
+        long pinned = entry.seed == null ? 0 : entry.seed.seal();
+        entry.seed = new Seed(new StripedStock(Math.max(0, quantity - pinned), stripes), version, pinned, stripes);
+        entry.version = version;
+    }
+
+    private void retireIfIdle(Entry entry) {
+        Seed seed = entry.seed;
+        if (seed == null || seed == RETIRED || !seed.isIdle() || (!seed.stale && entries.size() <= maxIdleProducts)) {
+            return;
+        }
+        if (!entry.lock.tryLock()) {
+            // a reseed or stale mark is running, and will retire it if still idle
+            return;
+        }
+        try {
+            seed = entry.seed;
+            if (seed == RETIRED) {
+                return;
+            }
+            long pinned = seed.seal();
+            if (pinned != 0) {
+                // pinned again meanwhile; carry the count over to an identical seed
+                Seed resealed = new Seed(seed.stock, seed.version, pinned, stripes);
+                resealed.stale = seed.stale;
+                entry.seed = resealed;
+                return;
+            }
+            entry.seed = RETIRED;
+        } finally {
+            entry.lock.unlock();
+        }
+        entries.remove(entry.productId, entry);
+    }
+
+    private void retireUnloaded(Entry entry) {
+        entry.lock.lock();
+        try {
+            if (entry.seed != null) {
+                return;
+            }
+            entry.seed = RETIRED;
+        } finally {
+            entry.lock.unlock();
+        }
+        entries.remove(entry.productId, entry);
+    }
+
+    private enum Settlement {
+        RELEASED, NOT_TAKEN, CONSUMED
+    }
+
+    static final class Pin {
+        private final Entry entry;
+        private final StripedStock stock;
+        private final int quantity;
+
+        private Pin(Entry entry, StripedStock stock, int quantity) {
+            this.entry = entry;
+            this.stock = stock;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Entry {
+        private final Long productId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicReference<CompletableFuture<Void>> loading = new AtomicReference<>();
+        /** {@code null} until first loaded; {@link #RETIRED} once dropped from the map. */
+        private volatile Seed seed;
+        /** Guarded by {@link #lock}. */
+        private long version = -1;
+        /** Written under {@link #lock}; a load started before a stale mark must not clear it. */
+        private volatile long staleMarks;
+
+        private Entry(Long productId) {
+            this.productId = productId;
+        }
+    }
+
+    /** One stock count and the pins counted against it, in padded cells that a reseed seals one by one. */
+    private static final class Seed {
+        private final StripedStock stock;
+        private final long version;
+        private final AtomicLongArray pinned;
+        private final int mask;
+        private volatile boolean stale;
+
+        private Seed(StripedStock stock, long version, long pinned, int stripes) {
+            int size = StripedStock.cellsFor(stripes);
+            this.stock = stock;
+            this.version = version;
+            this.pinned = new AtomicLongArray(size * StripedStock.PAD);
+            this.pinned.set(0, pinned);
+            this.mask = size - 1;
+        }
+
+        private static Seed retired() {
+            Seed seed = new Seed(null, Long.MAX_VALUE, 0, 1);
+            seed.seal();
+            return seed;
+        }
+
+        /** Returns {@code false} when the chosen cell is sealed, as the seed is being replaced. */
+        private boolean add(long quantity) {
+            int index = (ThreadLocalRandom.current().nextInt() & mask) * StripedStock.PAD;
+            long current;
+            while ((current = pinned.get(index)) != SEALED) {
+                if (pinned.compareAndSet(index, current, current + quantity)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long seal() {
+            long sum = 0;
+            for (int i = 0; i <= mask; i++) {
+                sum += pinned.getAndSet(i * StripedStock.PAD, SEALED);
+            }
+            return sum;
+        }
+
+        private boolean isIdle() {
+            long sum = 0;
+            for (int i = 0; i <= mask; i++) {
+                long current = pinned.get(i * StripedStock.PAD);
+                if (current == SEALED) {
+                    return false;
+                }
+                sum += current;
+            }
+            return sum == 0;
+        }
+    }
+}
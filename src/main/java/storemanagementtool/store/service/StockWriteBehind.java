@@ -0,0 +1,283 @@
+package storemanagementtool.store.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.exception.custom.ProductOutOfStockException;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional group commit for {@link ProductService#buyProduct}, enabled with
+ * {@code application.product.write-behind.enabled}. Purchases are checked against an in-memory stock count and
+ * queued; a single flusher thread coalesces everything queued within {@code flush-interval} (or up to
+ * {@code max-batch} purchases) into one guarded UPDATE per product, committed together. Each caller is released
+ * once the transaction holding its decrement has committed.
+ * <p>
+ * The in-memory count is a {@link StockTracker}, holding each purchase pinned until its decrement has committed.
+ * If a merged decrement still fails its guard, the product's callers are retried one guarded decrement each, so only
+ * those the database can no longer serve get an out-of-stock error. Retries run on their own thread, in a queue
+ * bounded by {@code queue-capacity}, so a rejected product never holds up the next group commit. Products without
+ * queued purchases are dropped once more than {@code max-tracked-products} are tracked.
+ */
+@Component
+public class StockWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(StockWriteBehind.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<PendingDecrement> queue;
+    private final StockTracker stock;
+    private final ThreadPoolExecutor retryExecutor;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public StockWriteBehind(ProductRepository productRepository, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                            @Value("${application.product.write-behind.enabled:false}") boolean enabled,
+                            @Value("${application.product.write-behind.queue-capacity:10000}") int queueCapacity,
+                            @Value("${application.product.write-behind.max-batch:1000}") int maxBatch,
+                            @Value("${application.product.write-behind.flush-interval:5ms}") Duration flushInterval,
+                            @Value("${application.product.write-behind.max-tracked-products:10000}") int maxTrackedProducts) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.stock = new StockTracker(productRepository, Runtime.getRuntime().availableProcessors(), maxTrackedProducts);
+        this.retryExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "stock-write-behind-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = DistributionSummary.builder("product.write_behind.batch.size")
+                .description("Purchases committed per group commit")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("product.write_behind.flush")
+                .description("Time to write and commit one group of purchases")
+                .register(meterRegistry);
+        Gauge.builder("product.write_behind.queue.depth", queue, BlockingQueue::size)
+                .description("Purchases waiting for the next group commit")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "stock-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        retryExecutor.shutdown();
+        retryExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        // anything that slipped in after the flusher's last drain
+        List<PendingDecrement> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(pending -> pending.committed.completeExceptionally(
+                new RejectedExecutionException("Stock write queue is shut down")));
+    }
+
+    /**
+     * Takes {@code quantity} units of the product and blocks until the decrement is committed.
+     */
+    public void decrement(Long productId, int quantity) {
+        StockTracker.Pin pin = stock.take(productId, quantity);
+        if (pin == null) {
+            throw new ProductOutOfStockException("Product out of stock");
+        }
+        PendingDecrement pending = new PendingDecrement(productId, quantity, pin);
+        if (!running || !queue.offer(pending)) {
+            stock.release(pin);
+            throw new RejectedExecutionException("Stock write queue is full");
+        }
+        try {
+            pending.committed.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        stock.onProductChanged(event);
+    }
+
+    @EventListener
+    public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+        stock.onProductsInvalidated(event);
+    }
+
+    boolean isTracked(Long productId) {
+        return stock.isTracked(productId);
+    }
+
+    private void flushLoop() {
+        List<PendingDecrement> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingDecrement first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    PendingDecrement next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingDecrement> batch) {
+        SortedMap<Long, Integer> quantitiesById = new TreeMap<>();
+        for (PendingDecrement pending : batch) {
+            quantitiesById.merge(pending.productId, pending.quantity, Integer::sum);
+        }
+        Timer.Sample sample = Timer.start();
+        int[] updateCounts;
+        try {
+            updateCounts = transactionTemplate.execute(status -> productRepository.decrementQuantities(quantitiesById));
+        } catch (RuntimeException e) {
+            recordFlush(sample, batch.size());
+            logger.error("Error: group commit of " + batch.size() + " purchases failed: " + e.getMessage());
+            quantitiesById.keySet().forEach(stock::markStale);
+            for (PendingDecrement pending : batch) {
+                stock.release(pending.pin);
+                pending.committed.completeExceptionally(e);
+            }
+            return;
+        }
+        // recorded before any caller is released, so a caller never sees metrics lagging its own purchase
+        recordFlush(sample, batch.size());
+        Map<Long, List<PendingDecrement>> rejected = new LinkedHashMap<>();
+        int index = 0;
+        for (Long productId : quantitiesById.keySet()) {
+            if (updateCounts == null || updateCounts[index++] == 0) {
+                // the database had less stock than counted here; recount on next purchase
+                rejected.put(productId, new ArrayList<>());
+                stock.markStale(productId);
+            }
+        }
+        for (PendingDecrement pending : batch) {
+            List<PendingDecrement> retries = rejected.get(pending.productId);
+            if (retries != null) {
+                retries.add(pending);
+            } else {
+                stock.consume(pending.pin);
+                pending.committed.complete(null);
+            }
+        }
+        for (List<PendingDecrement> retries : rejected.values()) {
+            try {
+                retryExecutor.execute(() -> retries.forEach(this::decrementAlone));
+            } catch (RejectedExecutionException e) {
+                retries.forEach(pending -> {
+                    stock.release(pending.pin);
+                    pending.committed.completeExceptionally(new RejectedExecutionException("Stock write retries are backed up"));
+                });
+            }
+        }
+    }
+
+    /**
+     * Retries one purchase of a product whose merged decrement failed its guard. The sum can exceed the stock while
+     * most of its parts still fit, so each caller gets its own guarded decrement, in arrival order.
+     */
+    private void decrementAlone(PendingDecrement pending) {
+        RuntimeException failure = null;
+        try {
+            if (productRepository.decrementQuantity(pending.productId, pending.quantity) == 0) {
+                failure = new ProductOutOfStockException("Product out of stock");
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error: decrement of product " + pending.productId + " failed: " + e.getMessage());
+            failure = e;
+        }
+        if (failure == null) {
+            stock.consume(pending.pin);
+            pending.committed.complete(null);
+        } else {
+            stock.release(pending.pin);
+            pending.committed.completeExceptionally(failure);
+        }
+    }
+
+    private void recordFlush(Timer.Sample sample, int purchases) {
+        sample.stop(flushTimer);
+        batchSize.record(purchases);
+    }
+
+    private static final class PendingDecrement {
+        private final Long productId;
+        private final int quantity;
+        private final StockTracker.Pin pin;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private PendingDecrement(Long productId, int quantity, StockTracker.Pin pin) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.pin = pin;
+        }
+    }
+}
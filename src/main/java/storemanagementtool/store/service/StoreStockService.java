@@ -0,0 +1,102 @@
+package storemanagementtool.store.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import storemanagementtool.store.dto.StockAvailabilityDto;
+import storemanagementtool.store.dto.StoreStockDto;
+import storemanagementtool.store.exception.custom.ProductOutOfStockException;
+import storemanagementtool.store.model.StoreStock;
+import storemanagementtool.store.model.StoreStockId;
+import storemanagementtool.store.repository.ProductRepository;
+import storemanagementtool.store.repository.StoreStockRepository;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Per-store stock, kept apart from the central warehouse stock in {@code product.quantity}. Store purchases only touch
+ * their own {@code store_stock} row, never the product row, so they neither contend with other stores nor change the
+ * product's version.
+ */
+@Service
+@Timed(value = "store.stock", histogram = true)
+public class StoreStockService {
+    private final StoreStockRepository storeStockRepository;
+    private final ProductRepository productRepository;
+
+    public StoreStockService(StoreStockRepository storeStockRepository, ProductRepository productRepository) {
+        this.storeStockRepository = storeStockRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public StoreStockDto findStoreStock(Long productId, Long storeId) {
+        return storeStockRepository.findById(new StoreStockId(productId, storeId))
+                .map(this::convertToDto)
+                .orElseThrow(() -> new NoSuchElementException("No stock of product " + productId + " in store " + storeId + "."));
+    }
+
+    /**
+     * The product's own {@code quantity} is the central warehouse's stock, the one online purchases, checkouts and
+     * reservations draw from; the stores' rows are separate stock on top of it.
+     */
+    @Transactional(readOnly = true)
+    public StockAvailabilityDto getAvailability(Long productId) {
+        int warehouseQuantity = productRepository.findQuantityById(productId)
+                .orElseThrow(() -> new NoSuchElementException("Product with id " + productId + " not found."));
+        List<StoreStockDto> stores = storeStockRepository.findByProductIdOrderByStoreIdAsc(productId).stream()
+                .map(this::convertToDto)
+                .toList();
+        return StockAvailabilityDto.builder()
+                .productId(productId)
+                .warehouseQuantity(warehouseQuantity)
+                .totalQuantity(warehouseQuantity + stores.stream().mapToLong(StoreStockDto::getQuantity).sum())
+                .stores(stores)
+                .build();
+    }
+
+    /**
+     * Sets a store's stock to {@code quantity} in place, creating the store's row on first use. The row is created
+     * empty and then updated in the same transaction, so concurrent first writes never collide on the key and the
+     * last one wins.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public StoreStockDto setStoreStock(Long productId, Long storeId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative.");
+        }
+        storeStockRepository.insertIfAbsent(productId, storeId);
+        if (storeStockRepository.updateQuantity(productId, storeId, quantity) == 0) {
+            throw new NoSuchElementException("Product with id " + productId + " not found.");
+        }
+        return StoreStockDto.builder()
+                .productId(productId)
+                .storeId(storeId)
+                .quantity(quantity)
+                .build();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public StoreStockDto buyFromStore(Long productId, Long storeId, int quantityToBuy) {
+        if (quantityToBuy <= 0) {
+            throw new IllegalArgumentException("Quantity to buy must be greater than zero.");
+        }
+        if (storeStockRepository.decrementQuantity(productId, storeId, quantityToBuy) == 0) {
+            if (!storeStockRepository.existsById(new StoreStockId(productId, storeId))) {
+                throw new NoSuchElementException("No stock of product " + productId + " in store " + storeId + ".");
+            }
+            throw new ProductOutOfStockException("Product out of stock in store " + storeId);
+        }
+        return findStoreStock(productId, storeId);
+    }
+
+    private StoreStockDto convertToDto(StoreStock storeStock) {
+        return StoreStockDto.builder()
+                .productId(storeStock.getProductId())
+                .storeId(storeStock.getStoreId())
+                .quantity(storeStock.getQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package storemanagementtool.store.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock of one product split across cache-line-padded cells. A take first tries to satisfy the whole quantity from a
+ * single cell with a bounded CAS, so concurrent buyers of the same product rarely touch the same cell. Only when the
+ * remaining stock is fragmented across cells does it fall back to gathering from all of them under a lock. The sum
+ * of all cells never goes below zero.
+ */
+final class StripedStock {
+    // 16 longs = 128 bytes between cells, enough to keep neighbours off each other's cache line
+    static final int PAD = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedStock(long initial, int stripes) {
+        int size = cellsFor(stripes);
+        this.cells = new AtomicLongArray(size * PAD);
+        this.mask = size - 1;
+        long share = initial / size;
+        long remainder = initial % size;
+        for (int i = 0; i < size; i++) {
+            cells.set(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /** Number of cells used for {@code stripes}: the next power of two, at least two. */
+    static int cellsFor(int stripes) {
+        return Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+    }
+
+    boolean tryTake(long quantity) {
+        int start = ThreadLocalRandom.current().nextInt();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((start + i) & mask) * PAD;
+            long current;
+            while ((current = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return gather(quantity);
+    }
+
+    void put(long quantity) {
+        cells.getAndAdd((ThreadLocalRandom.current().nextInt() & mask) * PAD, quantity);
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    private synchronized boolean gather(long quantity) {
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < quantity; i++) {
+            int index = i * PAD;
+            long current;
+            while ((current = cells.get(index)) > 0) {
+                long part = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(index, current, current - part)) {
+                    taken += part;
+                    break;
+                }
+            }
+        }
+        if (taken < quantity) {
+            put(taken);
+            return false;
+        }
+        return true;
+    }
+}
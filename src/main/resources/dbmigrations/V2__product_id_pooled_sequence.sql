@@ -0,0 +1,3 @@
+-- Product ids are allocated by Hibernate's pooled optimizer in blocks of 50 (Product.ID_ALLOCATION_SIZE),
+-- which is what allows inserts to be JDBC-batched. The BIGSERIAL sequence has to step by the same amount.
+ALTER SEQUENCE product_id_seq INCREMENT BY 50;
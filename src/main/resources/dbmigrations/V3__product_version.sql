@@ -0,0 +1,2 @@
+-- Optimistic-locking version, also the source of product ETags. Bumped by every write to the row.
+ALTER TABLE product ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
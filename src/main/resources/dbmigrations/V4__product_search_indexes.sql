@@ -0,0 +1,12 @@
+-- Indexes behind GET /api/v1/product/search.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- case-insensitive prefix match: lower(name) LIKE 'abc%' (text_pattern_ops makes LIKE usable under any collation)
+CREATE INDEX IF NOT EXISTS product_name_lower_prefix_idx ON product (lower(name) text_pattern_ops);
+-- case-insensitive contains match: lower(name) LIKE '%abc%'
+CREATE INDEX IF NOT EXISTS product_name_lower_trgm_idx ON product USING gin (lower(name) gin_trgm_ops);
+
+-- range filters and ordering; id breaks ties so pages are stable
+CREATE INDEX IF NOT EXISTS product_price_id_idx ON product (price, id);
+CREATE INDEX IF NOT EXISTS product_quantity_id_idx ON product (quantity, id);
+CREATE INDEX IF NOT EXISTS product_name_id_idx ON product (name, id);
@@ -0,0 +1,6 @@
+-- Catalog-wide change order for delta sync: every insert and update stamps the row with the id of the writing
+-- transaction. Changes are read in (change_txid, id) order, and only below txid_snapshot_xmin, since no
+-- transaction with a smaller id can commit after that point.
+ALTER TABLE product ADD COLUMN change_txid BIGINT NOT NULL DEFAULT txid_current();
+
+CREATE INDEX IF NOT EXISTS product_change_txid_id_idx ON product (change_txid, id);
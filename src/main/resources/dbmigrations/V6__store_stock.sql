@@ -0,0 +1,9 @@
+-- Stock held by each physical store, one row per product and store, so purchases in different stores
+-- update different rows instead of contending on product.quantity.
+CREATE TABLE IF NOT EXISTS store_stock
+(
+    product_id BIGINT  NOT NULL REFERENCES product (id),
+    store_id   BIGINT  NOT NULL,
+    quantity   INTEGER NOT NULL CHECK (quantity >= 0),
+    PRIMARY KEY (product_id, store_id)
+);
@@ -0,0 +1,9 @@
+-- Token revocations outlive a restart: each instance reloads the unexpired rows into its in-memory denylist at
+-- startup and after missing invalidation messages. Requests never read this table.
+CREATE TABLE IF NOT EXISTS revoked_token
+(
+    jti        VARCHAR(255)             NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS revoked_token_expires_at_idx ON revoked_token (expires_at);
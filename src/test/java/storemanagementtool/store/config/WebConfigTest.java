@@ -0,0 +1,123 @@
+package storemanagementtool.store.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import storemanagementtool.store.controller.ProductController;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.service.CatalogSnapshotService;
+import storemanagementtool.store.service.InventoryReservationService;
+import storemanagementtool.store.service.ProductEventBroadcaster;
+import storemanagementtool.store.service.ProductExportService;
+import storemanagementtool.store.service.ProductImportService;
+import storemanagementtool.store.service.ProductRepriceService;
+import storemanagementtool.store.service.ProductService;
+import storemanagementtool.store.service.StoreStockService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class WebConfigTest {
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final WebConfig webConfig = new WebConfig();
+    private final ProductService productService = mock(ProductService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, mock(ProductExportService.class),
+                        mock(ProductImportService.class), mock(ProductRepriceService.class), mock(InventoryReservationService.class),
+                        mock(ProductEventBroadcaster.class), mock(CatalogSnapshotService.class), mock(StoreStockService.class)))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        webConfig.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()),
+                        webConfig.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()))
+                .build();
+    }
+
+    @Test
+    void givenCborAccepted_whenGetProduct_thenBodyEncodedAsCbor() throws Exception {
+        ProductDto product = buildProduct();
+        when(productService.findProductById(1L)).thenReturn(product);
+
+        byte[] body = mockMvc.perform(get("/api/v1/product/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode decoded = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals("Sample Product", decoded.get("name").asText());
+        assertEquals(3L, decoded.get("version").asLong());
+    }
+
+    @Test
+    void givenSameVersionInTwoEncodings_whenGetProduct_thenETagsDifferAndVaryByAccept() throws Exception {
+        when(productService.findProductById(1L)).thenReturn(buildProduct());
+
+        mockMvc.perform(get("/api/v1/product/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/api/v1/product/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+    }
+
+    @Test
+    void givenJsonTagRevalidatedAsSmile_whenGetProduct_thenFullBodyAndNotModifiedCarriesVary() throws Exception {
+        when(productService.findProductVersion(1L)).thenReturn(3L);
+        when(productService.findProductById(1L)).thenReturn(buildProduct());
+
+        mockMvc.perform(get("/api/v1/product/1").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-smile\""));
+        mockMvc.perform(get("/api/v1/product/1").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, "\"3-smile\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void givenSmileBody_whenAddProduct_thenDecodedAndAnsweredInSmile() throws Exception {
+        ProductDto product = buildProduct();
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        when(productService.addProduct(any(ProductDto.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        byte[] body = mockMvc.perform(post("/api/v1/product")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(product)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ProductDto added = smileMapper.readValue(body, ProductDto.class);
+        assertEquals(product.getName(), added.getName());
+        verify(productService).addProduct(any(ProductDto.class));
+    }
+
+    private ProductDto buildProduct() {
+        return ProductDto.builder()
+                .id(1L)
+                .name("Sample Product")
+                .price(2.5)
+                .quantity(10)
+                .version(3L)
+                .build();
+    }
+}
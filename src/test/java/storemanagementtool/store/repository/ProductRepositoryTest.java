@@ -0,0 +1,262 @@
+package storemanagementtool.store.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import storemanagementtool.store.dto.CatalogVersion;
+import storemanagementtool.store.dto.PriceRounding;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductVersion;
+import storemanagementtool.store.model.Product;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    public void givenProductsSaved_whenFindByIdGreaterThan_thenPageStartsAfterCursor() {
+        List<Product> saved = productRepository.saveAll(List.of(buildProduct("a"), buildProduct("b"), buildProduct("c")));
+
+        List<Product> page = productRepository.findByIdGreaterThanOrderByIdAsc(saved.get(0).getId(), Limit.of(1));
+
+        assertEquals(1, page.size());
+        assertEquals(saved.get(1).getId(), page.get(0).getId());
+    }
+
+    @Test
+    public void givenCursorAfterLastProduct_whenFindByIdGreaterThan_thenEmpty() {
+        Product saved = productRepository.save(buildProduct("a"));
+
+        List<Product> page = productRepository.findByIdGreaterThanOrderByIdAsc(saved.getId(), Limit.of(10));
+
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    public void givenEnoughStock_whenDecrementQuantity_thenStockReduced() {
+        Product saved = productRepository.save(buildProduct("a"));
+
+        int updated = productRepository.decrementQuantity(saved.getId(), 5);
+
+        assertEquals(1, updated);
+        assertEquals(0, productRepository.findById(saved.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void givenProductSaved_whenDecrementQuantity_thenVersionBumped() {
+        Product saved = productRepository.save(buildProduct("a"));
+        long versionBefore = productRepository.findVersionById(saved.getId()).orElseThrow();
+
+        productRepository.decrementQuantity(saved.getId(), 1);
+
+        assertEquals(versionBefore + 1, productRepository.findVersionById(saved.getId()).orElseThrow());
+    }
+
+    @Test
+    public void givenProductChanged_whenFindCatalogVersion_thenVersionDiffers() {
+        Product saved = productRepository.save(buildProduct("a"));
+        CatalogVersion before = productRepository.findCatalogVersion();
+
+        productRepository.decrementQuantity(saved.getId(), 1);
+
+        CatalogVersion after = productRepository.findCatalogVersion();
+        assertNotEquals(before.toTag(), after.toTag());
+    }
+
+    @Test
+    public void givenNotEnoughStock_whenDecrementQuantity_thenNothingUpdated() {
+        Product saved = productRepository.save(buildProduct("a"));
+
+        int updated = productRepository.decrementQuantity(saved.getId(), 6);
+
+        assertEquals(0, updated);
+        assertEquals(5, productRepository.findById(saved.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void givenSeveralProducts_whenDecrementQuantities_thenEachRowReportsItsOwnResult() {
+        List<Product> saved = productRepository.saveAll(List.of(buildProduct("a"), buildProduct("b")));
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        quantities.put(saved.get(0).getId(), 2);
+        quantities.put(saved.get(1).getId(), 6);
+
+        int[] updated = productRepository.decrementQuantities(quantities);
+
+        assertArrayEquals(new int[]{1, 0}, updated);
+        assertEquals(3, productRepository.findById(saved.get(0).getId()).orElseThrow().getQuantity());
+        assertEquals(5, productRepository.findById(saved.get(1).getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void givenPriceList_whenUpdatePrices_thenPricesSetAndVersionsBumped() {
+        List<Product> saved = productRepository.saveAll(List.of(buildProduct("a"), buildProduct("b")));
+        SortedMap<Long, Double> prices = new TreeMap<>();
+        prices.put(saved.get(0).getId(), 7.5);
+        prices.put(saved.get(1).getId() + 1000, 1.0);
+
+        int[] updated = productRepository.updatePrices(prices);
+
+        assertArrayEquals(new int[]{1, 0}, updated);
+        Product product = productRepository.findById(saved.get(0).getId()).orElseThrow();
+        assertEquals(7.5, product.getPrice());
+        assertEquals(1L, product.getVersion());
+    }
+
+    @Test
+    public void givenPriceRange_whenAdjustPrices_thenOnlyProductsInRangeRepricedAndRounded() {
+        List<Product> products = List.of(buildProduct("a"), buildProduct("b"), buildProduct("c"));
+        products.get(0).setPrice(9.5);
+        products.get(1).setPrice(19.0);
+        products.get(2).setPrice(100.0);
+        List<Long> ids = productRepository.saveAll(products).stream().map(Product::getId).toList();
+
+        List<Long> inRange = productRepository.findIdsInPriceRange(0L, 5.0, 50.0, Limit.of(10));
+        int updated = productRepository.adjustPrices(ids, 0.9, PriceRounding.NINETY_NINE, 5.0, 50.0);
+
+        assertEquals(List.of(ids.get(0), ids.get(1)), inRange);
+        assertEquals(2, updated);
+        assertEquals(8.99, productRepository.findById(ids.get(0)).orElseThrow().getPrice());
+        assertEquals(17.99, productRepository.findById(ids.get(1)).orElseThrow().getPrice());
+        assertEquals(100.0, productRepository.findById(ids.get(2)).orElseThrow().getPrice());
+    }
+
+    @Test
+    public void givenProducts_whenFindVersionsAfter_thenKeysetPageOfIdsAndVersions() {
+        List<Long> ids = productRepository.saveAll(List.of(buildProduct("a"), buildProduct("b"), buildProduct("c")))
+                .stream().map(Product::getId).toList();
+
+        List<ProductVersion> page = productRepository.findVersionsAfter(ids.get(0), Limit.of(1));
+
+        assertEquals(1, page.size());
+        assertEquals(ids.get(1), page.get(0).getId());
+        assertEquals(0L, page.get(0).getVersion());
+    }
+
+    @Test
+    public void givenNinetyNineRounding_whenAdjustPrices_thenRoundedUpToNextNinetyNine() {
+        List<Product> products = List.of(buildProduct("a"), buildProduct("b"), buildProduct("c"));
+        products.get(0).setPrice(10.99);
+        products.get(1).setPrice(10.995);
+        products.get(2).setPrice(11.0);
+        List<Long> ids = productRepository.saveAll(products).stream().map(Product::getId).toList();
+
+        productRepository.adjustPrices(ids, 1.0, PriceRounding.NINETY_NINE, -Double.MAX_VALUE, Double.MAX_VALUE);
+
+        assertEquals(10.99, productRepository.findById(ids.get(0)).orElseThrow().getPrice());
+        assertEquals(11.99, productRepository.findById(ids.get(1)).orElseThrow().getPrice());
+        assertEquals(11.99, productRepository.findById(ids.get(2)).orElseThrow().getPrice());
+    }
+
+    @Test
+    public void givenCentsRounding_whenAdjustPrices_thenRoundedHalfUpAndNeverZero() {
+        List<Product> products = List.of(buildProduct("a"), buildProduct("b"));
+        products.get(0).setPrice(10.0);
+        products.get(1).setPrice(0.004);
+        List<Long> ids = productRepository.saveAll(products).stream().map(Product::getId).toList();
+
+        productRepository.adjustPrices(ids, 1.0 / 3, PriceRounding.CENTS, -Double.MAX_VALUE, Double.MAX_VALUE);
+
+        assertEquals(3.33, productRepository.findById(ids.get(0)).orElseThrow().getPrice());
+        assertEquals(0.01, productRepository.findById(ids.get(1)).orElseThrow().getPrice());
+    }
+
+    @Test
+    public void givenWrites_whenFindChangesAfter_thenProductsInChangeOrderBelowHorizon() {
+        List<Product> saved = productRepository.saveAll(List.of(buildProduct("a"), buildProduct("b"), buildProduct("c")));
+        // inserts take change_txid from the column default, so it is only visible once re-read
+        testEntityManager.flush();
+        testEntityManager.clear();
+        saved = productRepository.findAllById(saved.stream().map(Product::getId).toList());
+        long before = productRepository.findChangeHorizon();
+
+        Product first = saved.stream().filter(product -> product.getName().equals("a")).findFirst().orElseThrow();
+        first.setPrice(20.0);
+        productRepository.saveAndFlush(first);
+        productRepository.decrementQuantity(idOf(saved, "c"), 1);
+        productRepository.decrementQuantities(new TreeMap<>(Map.of(idOf(saved, "b"), 1)));
+
+        long horizon = productRepository.findChangeHorizon();
+        List<Product> changed = productRepository.findChangesAfter(before, 0, horizon, Limit.of(10));
+
+        assertEquals(List.of("a", "c", "b"), changed.stream().map(Product::getName).toList());
+        assertTrue(changed.get(0).getChangeTxid() < changed.get(1).getChangeTxid());
+        assertTrue(changed.get(1).getChangeTxid() < changed.get(2).getChangeTxid());
+        assertTrue(changed.get(2).getChangeTxid() < horizon);
+        // a horizon below the writes holds them back
+        assertTrue(productRepository.findChangesAfter(before, 0, before, Limit.of(10)).isEmpty());
+        // within one transaction id the position continues after the last id returned
+        Product oldest = changed.get(0);
+        assertEquals(List.of("c", "b"), productRepository.findChangesAfter(oldest.getChangeTxid(), oldest.getId(), horizon,
+                Limit.of(10)).stream().map(Product::getName).toList());
+    }
+
+    @Test
+    public void givenMixedCaseNames_whenSearchByPrefix_thenMatchIgnoresCase() {
+        productRepository.saveAll(List.of(buildProduct("Apple"), buildProduct("apricot"), buildProduct("Pineapple")));
+
+        Slice<Product> result = productRepository.search(ProductSearchCriteria.builder().name("AP").build(),
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(List.of("Apple", "apricot"), result.getContent().stream().map(Product::getName).toList());
+    }
+
+    @Test
+    public void givenNames_whenSearchByContains_thenWildcardsInInputAreLiteral() {
+        productRepository.saveAll(List.of(buildProduct("Pineapple"), buildProduct("100% juice"), buildProduct("1000 juice")));
+
+        Slice<Product> contains = productRepository.search(ProductSearchCriteria.builder()
+                .name("APPLE").nameMatch(ProductSearchCriteria.NameMatch.CONTAINS).build(), PageRequest.of(0, 10));
+        Slice<Product> percent = productRepository.search(ProductSearchCriteria.builder()
+                .name("0%").nameMatch(ProductSearchCriteria.NameMatch.CONTAINS).build(), PageRequest.of(0, 10));
+
+        assertEquals(List.of("Pineapple"), contains.getContent().stream().map(Product::getName).toList());
+        assertEquals(List.of("100% juice"), percent.getContent().stream().map(Product::getName).toList());
+    }
+
+    @Test
+    public void givenPriceRange_whenSearchSortedByPriceDesc_thenFilteredSortedAndSliced() {
+        List<Product> products = List.of(buildProduct("a"), buildProduct("b"), buildProduct("c"), buildProduct("d"));
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setPrice(10.0 * (i + 1));
+        }
+        productRepository.saveAll(products);
+
+        Slice<Product> first = productRepository.search(ProductSearchCriteria.builder().minPrice(15.0).maxPrice(40.0).build(),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price")));
+        Slice<Product> second = productRepository.search(ProductSearchCriteria.builder().minPrice(15.0).maxPrice(40.0).build(),
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "price")));
+
+        assertEquals(List.of("d", "c"), first.getContent().stream().map(Product::getName).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of("b"), second.getContent().stream().map(Product::getName).toList());
+        assertFalse(second.hasNext());
+    }
+
+    private Long idOf(List<Product> products, String name) {
+        return products.stream().filter(product -> product.getName().equals(name)).findFirst().orElseThrow().getId();
+    }
+
+    private Product buildProduct(String name) {
+        return Product.builder()
+                .name(name)
+                .price(10.0)
+                .quantity(5)
+                .build();
+    }
+}
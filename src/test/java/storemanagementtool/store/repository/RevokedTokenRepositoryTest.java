@@ -0,0 +1,33 @@
+package storemanagementtool.store.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import storemanagementtool.store.model.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class RevokedTokenRepositoryTest {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    public void givenExpiredAndLiveRevocations_whenPurgedAndReloaded_thenOnlyLiveOnesRemain() {
+        Instant now = Instant.now();
+        revokedTokenRepository.saveAll(List.of(new RevokedToken("expired", now.minusSeconds(60)),
+                new RevokedToken("live", now.plusSeconds(60))));
+
+        int deleted = revokedTokenRepository.deleteExpired(now);
+
+        assertEquals(1, deleted);
+        assertEquals(List.of("live"), revokedTokenRepository.findByExpiresAtAfter(now).stream()
+                .map(RevokedToken::getJti)
+                .toList());
+        assertFalse(revokedTokenRepository.existsById("expired"));
+    }
+}
@@ -0,0 +1,80 @@
+package storemanagementtool.store.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.model.StoreStock;
+import storemanagementtool.store.model.StoreStockId;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PostgreSQL mode, so H2 runs the ON CONFLICT clause of insertIfAbsent
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:store-stock;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class StoreStockRepositoryTest {
+
+    @Autowired
+    private StoreStockRepository storeStockRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void givenStockInTwoStores_whenDecrementQuantity_thenOnlyThatStoreReduced() {
+        Long productId = saveProduct();
+        storeStockRepository.saveAll(List.of(buildStock(productId, 1L, 5), buildStock(productId, 2L, 5)));
+
+        int updated = storeStockRepository.decrementQuantity(productId, 1L, 3);
+
+        assertEquals(1, updated);
+        assertEquals(List.of(2, 5), storeStockRepository.findByProductIdOrderByStoreIdAsc(productId).stream()
+                .map(StoreStock::getQuantity)
+                .toList());
+        assertEquals(0L, productRepository.findById(productId).orElseThrow().getVersion());
+    }
+
+    @Test
+    public void givenNotEnoughStockInStore_whenDecrementQuantity_thenNothingUpdated() {
+        Long productId = saveProduct();
+        storeStockRepository.save(buildStock(productId, 1L, 2));
+
+        assertEquals(0, storeStockRepository.decrementQuantity(productId, 1L, 3));
+        assertEquals(0, storeStockRepository.decrementQuantity(productId, 2L, 1));
+        assertEquals(2, storeStockRepository.findById(new StoreStockId(productId, 1L)).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void givenNoRowForStore_whenInsertIfAbsentTwice_thenOneEmptyRowCreated() {
+        Long productId = saveProduct();
+
+        assertEquals(1, storeStockRepository.insertIfAbsent(productId, 1L));
+        assertEquals(0, storeStockRepository.insertIfAbsent(productId, 1L));
+        assertEquals(1, storeStockRepository.updateQuantity(productId, 1L, 7));
+        assertEquals(7, storeStockRepository.findById(new StoreStockId(productId, 1L)).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void givenMissingProduct_whenInsertIfAbsent_thenNothingCreated() {
+        assertEquals(0, storeStockRepository.insertIfAbsent(Long.MAX_VALUE, 1L));
+        assertEquals(0, storeStockRepository.updateQuantity(Long.MAX_VALUE, 1L, 7));
+    }
+
+    private Long saveProduct() {
+        return productRepository.save(Product.builder()
+                .name("a")
+                .price(10.0)
+                .quantity(5)
+                .build()).getId();
+    }
+
+    private StoreStock buildStock(Long productId, Long storeId, int quantity) {
+        return StoreStock.builder()
+                .productId(productId)
+                .storeId(storeId)
+                .quantity(quantity)
+                .build();
+    }
+}
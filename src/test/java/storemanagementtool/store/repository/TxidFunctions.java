@@ -0,0 +1,26 @@
+package storemanagementtool.store.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * H2 has no transaction ids. Every call of {@code txid_current()} here counts up instead, and the snapshot horizon is
+ * always past the last id handed out, as in Postgres when no other transaction is running.
+ */
+public final class TxidFunctions {
+    private static final AtomicLong LAST_TXID = new AtomicLong();
+
+    private TxidFunctions() {
+    }
+
+    public static long txidCurrent() {
+        return LAST_TXID.incrementAndGet();
+    }
+
+    public static long txidCurrentSnapshot() {
+        return LAST_TXID.get() + 1;
+    }
+
+    public static long txidSnapshotXmin(long snapshot) {
+        return snapshot;
+    }
+}
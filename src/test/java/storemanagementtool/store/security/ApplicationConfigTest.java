@@ -0,0 +1,69 @@
+package storemanagementtool.store.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import storemanagementtool.store.model.Role;
+import storemanagementtool.store.model.User;
+import storemanagementtool.store.repository.UserRepository;
+import storemanagementtool.store.service.CacheInvalidationBus;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ApplicationConfigTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+    @Captor
+    private ArgumentCaptor<User> userCaptor;
+
+    @Test
+    void givenHashWithLowerStrength_whenAuthenticate_thenPasswordReEncoded() {
+        User user = buildUser(new BCryptPasswordEncoder(4).encode("123"));
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        buildProvider(5).authenticate(new UsernamePasswordAuthenticationToken("user", "123"));
+
+        verify(userRepository).save(userCaptor.capture());
+        assertTrue(userCaptor.getValue().getPassword().startsWith("$2a$05$"));
+        verify(cacheInvalidationBus).invalidateUser("user");
+    }
+
+    @Test
+    void givenHashWithConfiguredStrength_whenAuthenticate_thenPasswordNotTouched() {
+        User user = buildUser(new BCryptPasswordEncoder(4).encode("123"));
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+
+        buildProvider(4).authenticate(new UsernamePasswordAuthenticationToken("user", "123"));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    private AuthenticationProvider buildProvider(int strength) {
+        ApplicationConfig applicationConfig = new ApplicationConfig(userRepository, new SimpleMeterRegistry(), cacheInvalidationBus);
+        ReflectionTestUtils.setField(applicationConfig, "bcryptStrength", strength);
+        return applicationConfig.authenticationProvider();
+    }
+
+    private User buildUser(String encodedPassword) {
+        return User.builder()
+                .username("user")
+                .password(encodedPassword)
+                .role(Role.USER)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package storemanagementtool.store.security;
+
+import io.jsonwebtoken.MalformedJwtException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.model.Role;
+import storemanagementtool.store.model.User;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+    @Mock
+    private JwtService jwtService;
+    @Mock
+    private TokenDenylist tokenDenylist;
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private FilterChain filterChain;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.USERS_CACHE);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void givenTokenWithAuthorities_whenFilter_thenAuthenticatedWithoutUserLookup() throws Exception {
+        VerifiedToken token = new VerifiedToken("id-1", "admin", List.of("ADMIN"), Instant.now().plusSeconds(60));
+        when(jwtService.verify("jwt")).thenReturn(token);
+        when(jwtService.isTokenValid(eq(token), any())).thenReturn(true);
+
+        buildFilter(false).doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(List.of("ADMIN"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void givenUserLookupEnabled_whenFilterTwice_thenUserLoadedOnceFromCache() throws Exception {
+        VerifiedToken token = new VerifiedToken("id-2", "user", List.of("USER"), Instant.now().plusSeconds(60));
+        User user = User.builder().username("user").password("encodedPassword").role(Role.USER).build();
+        when(jwtService.verify("jwt")).thenReturn(token);
+        when(jwtService.isTokenValid(token, user)).thenReturn(true);
+        when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+        JwtAuthenticationFilter filter = buildFilter(true);
+
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+        SecurityContextHolder.clearContext();
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+
+        assertSame(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername("user");
+    }
+
+    @Test
+    void givenInvalidToken_whenFilter_thenRequestContinuesUnauthenticated() throws Exception {
+        when(jwtService.verify("jwt")).thenThrow(new MalformedJwtException("bad"));
+        MockHttpServletRequest request = bearerRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        buildFilter(false).doFilter(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void givenRevokedToken_whenFilter_thenRequestContinuesUnauthenticated() throws Exception {
+        when(jwtService.verify("jwt")).thenReturn(new VerifiedToken("id-3", "admin", List.of("ADMIN"), Instant.now().plusSeconds(60)));
+        when(tokenDenylist.isRevoked("id-3")).thenReturn(true);
+        MockHttpServletRequest request = bearerRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        buildFilter(false).doFilter(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    private JwtAuthenticationFilter buildFilter(boolean userLookup) {
+        return new JwtAuthenticationFilter(jwtService, tokenDenylist, userDetailsService, cacheManager, userLookup);
+    }
+
+    private MockHttpServletRequest bearerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer jwt");
+        return request;
+    }
+}
@@ -0,0 +1,120 @@
+package storemanagementtool.store.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import storemanagementtool.store.model.Role;
+import storemanagementtool.store.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+    private static final String SECRET_KEY = "NDA0RTYzNTI2NjU1NkE1ODZFMzI3MjM1NzUzODc4MkY0MTNGNDQyODQ3MkI0QjYyNTA2NDUzNjc1NjZCNTk3MA==";
+
+    @Test
+    void givenGeneratedToken_whenVerify_thenUsernameAndExpirationParsed() {
+        JwtService jwtService = buildJwtService(60_000);
+        User user = buildUser("user");
+
+        VerifiedToken token = jwtService.verify(jwtService.generateToken(user));
+
+        assertNotNull(token.id());
+        assertEquals("user", token.username());
+        assertEquals(List.of("USER"), token.authorities());
+        assertFalse(token.isExpired());
+    }
+
+    @Test
+    void givenTwoTokensForSameUser_whenVerify_thenIdsDiffer() {
+        JwtService jwtService = buildJwtService(60_000);
+        User user = buildUser("user");
+
+        assertNotEquals(jwtService.verify(jwtService.generateToken(user)).id(),
+                jwtService.verify(jwtService.generateToken(user)).id());
+    }
+
+    @Test
+    void givenSameToken_whenVerifyTwice_thenCachedClaimsReused() {
+        JwtService jwtService = buildJwtService(60_000);
+        String jwt = jwtService.generateToken(buildUser("user"));
+
+        assertSame(jwtService.verify(jwt), jwtService.verify(jwt));
+    }
+
+    @Test
+    void givenCacheDisabled_whenVerifyTwice_thenTokenParsedEachTime() {
+        JwtService jwtService = buildJwtService(60_000, 0);
+        String jwt = jwtService.generateToken(buildUser("user"));
+
+        assertNotSame(jwtService.verify(jwt), jwtService.verify(jwt));
+    }
+
+    @Test
+    void givenTokens_whenVerify_thenTimedByResult() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = buildJwtService(new JwtService(meterRegistry), 60_000, 100);
+        String jwt = jwtService.generateToken(buildUser("user"));
+
+        jwtService.verify(jwt);
+        jwtService.verify(jwt);
+        assertThrows(JwtException.class, () -> jwtService.verify(jwt + "x"));
+
+        assertEquals(1, meterRegistry.get("security.jwt.verify").tag("result", "parsed").timer().count());
+        assertEquals(1, meterRegistry.get("security.jwt.verify").tag("result", "cached").timer().count());
+        assertEquals(1, meterRegistry.get("security.jwt.verify").tag("result", "rejected").timer().count());
+    }
+
+    @Test
+    void givenTokenForAnotherUser_whenIsTokenValid_thenFalse() {
+        JwtService jwtService = buildJwtService(60_000);
+        String jwt = jwtService.generateToken(buildUser("user"));
+
+        assertTrue(jwtService.isTokenValid(jwt, buildUser("user")));
+        assertFalse(jwtService.isTokenValid(jwt, buildUser("other")));
+    }
+
+    @Test
+    void givenTamperedToken_whenVerify_thenThrowsJwtException() {
+        JwtService jwtService = buildJwtService(60_000);
+        String jwt = jwtService.generateToken(buildUser("user"));
+        String tampered = jwt.substring(0, jwt.length() - 2) + (jwt.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void givenExpiredToken_whenVerify_thenThrowsExpiredJwtException() {
+        JwtService jwtService = buildJwtService(-1_000);
+        String jwt = jwtService.generateToken(buildUser("user"));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(jwt));
+    }
+
+    private JwtService buildJwtService(long expiration) {
+        return buildJwtService(expiration, 100);
+    }
+
+    private JwtService buildJwtService(long expiration, long verifiedCacheSize) {
+        return buildJwtService(new JwtService(new SimpleMeterRegistry()), expiration, verifiedCacheSize);
+    }
+
+    private JwtService buildJwtService(JwtService jwtService, long expiration, long verifiedCacheSize) {
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION", expiration);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", verifiedCacheSize);
+        jwtService.init();
+        return jwtService;
+    }
+
+    private User buildUser(String username) {
+        return User.builder()
+                .username(username)
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package storemanagementtool.store.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenDenylistTest {
+
+    @Test
+    void givenRevokedTokens_whenIsRevoked_thenOnlyThoseDenied() {
+        TokenDenylist denylist = new TokenDenylist(new SimpleMeterRegistry(), 60_000, 1000);
+
+        for (int i = 0; i < 1000; i++) {
+            denylist.revoke("revoked-" + i, Instant.now().plusSeconds(60));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(denylist.isRevoked("revoked-" + i));
+            assertFalse(denylist.isRevoked("valid-" + i));
+        }
+        assertFalse(denylist.isRevoked(null));
+    }
+
+    @Test
+    void givenFullDenylist_whenRevoke_thenExpiredEntriesMakeRoom() throws Exception {
+        TokenDenylist denylist = new TokenDenylist(new SimpleMeterRegistry(), 60_000, 2);
+        denylist.revoke("short-lived", Instant.now().plusMillis(20));
+        denylist.revoke("long-lived", Instant.now().plusSeconds(60));
+        Thread.sleep(50);
+
+        denylist.revoke("next", Instant.now().plusSeconds(60));
+
+        assertFalse(denylist.isRevoked("short-lived"));
+        assertTrue(denylist.isRevoked("long-lived"));
+        assertTrue(denylist.isRevoked("next"));
+        assertThrows(RejectedExecutionException.class, () -> denylist.revoke("one-too-many", Instant.now().plusSeconds(60)));
+        assertTrue(denylist.isRevoked("long-lived"));
+    }
+
+    @Test
+    void givenGenerationRotated_whenIsRevoked_thenEarlierRevocationStillDenied() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenDenylist denylist = new TokenDenylist(meterRegistry, 10, 100);
+        denylist.revoke("first", Instant.now().plusSeconds(60));
+        Thread.sleep(20);
+
+        denylist.revoke("second", Instant.now().plusSeconds(60));
+
+        assertTrue(denylist.isRevoked("first"));
+        assertTrue(denylist.isRevoked("second"));
+        assertEquals(2, meterRegistry.get("security.jwt.denylist.size").gauge().value());
+    }
+
+    @Test
+    void givenExpiredToken_whenRevoke_thenNotStored() {
+        TokenDenylist denylist = new TokenDenylist(new SimpleMeterRegistry(), 60_000, 100);
+
+        denylist.revoke("expired", Instant.now().minusSeconds(1));
+
+        assertFalse(denylist.isRevoked("expired"));
+    }
+}
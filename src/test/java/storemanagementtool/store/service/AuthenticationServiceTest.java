@@ -1,6 +1,6 @@
 package storemanagementtool.store.service;
 
-import jakarta.persistence.EntityNotFoundException;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import storemanagementtool.store.dto.AuthenticationRequest;
@@ -18,8 +19,14 @@ import storemanagementtool.store.model.Role;
 import storemanagementtool.store.model.User;
 import storemanagementtool.store.repository.UserRepository;
 import storemanagementtool.store.security.JwtService;
+import storemanagementtool.store.security.VerifiedToken;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +41,10 @@ public class AuthenticationServiceTest {
     private JwtService jwtService;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Mock
+    private Executor loginExecutor;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
     @Captor
     private ArgumentCaptor<User> userCaptor;
     @InjectMocks
@@ -80,27 +91,79 @@ public class AuthenticationServiceTest {
         User user = buildUserAuthentication();
         String expectedToken = "token";
 
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
-        when(jwtService.generateToken(any(User.class))).thenReturn(expectedToken);
-
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(jwtService.generateToken(user)).thenReturn(expectedToken);
 
         AuthenticationResponse response = authenticationService.authenticate(request);
 
         assertNotNull(response);
         assertEquals(expectedToken, response.getAccessToken());
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository).findByUsername("user");
         verify(jwtService).generateToken(user);
-        verifyNoMoreInteractions(userRepository, jwtService, authenticationManager);
+        verifyNoInteractions(userRepository);
+        verifyNoMoreInteractions(jwtService, authenticationManager);
+    }
+
+    @Test
+    void givenInvalidCredentials_whenAuthenticate_thenThrowsBadCredentialsException() {
+        AuthenticationRequest request = new AuthenticationRequest("user", "wrong");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> authenticationService.authenticate(request));
+        verifyNoInteractions(jwtService);
     }
 
     @Test
-    void givenInvalidUsername_whenAuthenticate_thenThrowsEntityNotFoundException() {
+    void givenLoginPool_whenAuthenticateAsync_thenAuthenticationRunsOnPool() {
         AuthenticationRequest request = new AuthenticationRequest("user", "123");
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        User user = buildUserAuthentication();
+        List<Runnable> submitted = new ArrayList<>();
+        AuthenticationService service = new AuthenticationService(userRepository, passwordEncoder, jwtService,
+                authenticationManager, submitted::add, cacheInvalidationBus);
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(jwtService.generateToken(user)).thenReturn("token");
+
+        CompletableFuture<AuthenticationResponse> future = service.authenticateAsync(request);
+
+        assertFalse(future.isDone());
+        submitted.forEach(Runnable::run);
+        assertEquals("token", future.join().getAccessToken());
+    }
+
+    @Test
+    void givenLoginPoolFull_whenAuthenticateAsync_thenThrowsRejectedExecutionException() {
+        AuthenticationService service = new AuthenticationService(userRepository, passwordEncoder, jwtService,
+                authenticationManager, task -> {
+                    throw new RejectedExecutionException("full");
+                }, cacheInvalidationBus);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> service.authenticateAsync(new AuthenticationRequest("user", "123")));
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void givenValidToken_whenRevoke_thenRevokedUntilExpiry() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        when(jwtService.verify("jwt")).thenReturn(new VerifiedToken("token-id", "user", List.of("USER"), expiresAt));
+
+        authenticationService.revoke("jwt");
+
+        verify(cacheInvalidationBus).revokeToken("token-id", expiresAt);
+    }
+
+    @Test
+    void givenInvalidOrUnidentifiedToken_whenRevoke_thenThrowsIllegalArgumentException() {
+        when(jwtService.verify("bad")).thenThrow(new MalformedJwtException("bad"));
+        when(jwtService.verify("old")).thenReturn(new VerifiedToken(null, "user", List.of("USER"), Instant.now().plusSeconds(60)));
 
-        assertThrows(EntityNotFoundException.class, () -> authenticationService.authenticate(request));
+        assertThrows(IllegalArgumentException.class, () -> authenticationService.revoke("bad"));
+        assertThrows(IllegalArgumentException.class, () -> authenticationService.revoke("old"));
+        verifyNoInteractions(cacheInvalidationBus);
     }
 
     private User buildUserAuthentication() {
@@ -0,0 +1,181 @@
+package storemanagementtool.store.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductVersion;
+import storemanagementtool.store.model.RevokedToken;
+import storemanagementtool.store.repository.ProductRepository;
+import storemanagementtool.store.repository.RevokedTokenRepository;
+import storemanagementtool.store.security.TokenDenylist;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidationBusTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+    @Mock
+    private ApplicationEventPublisher localPublisher;
+    @Mock
+    private ApplicationEventPublisher remotePublisher;
+
+    private final InProcessInvalidationTransport transport = new InProcessInvalidationTransport();
+    private final TokenDenylist localDenylist = new TokenDenylist(new SimpleMeterRegistry(), 60_000, 100);
+    private final TokenDenylist remoteDenylist = new TokenDenylist(new SimpleMeterRegistry(), 60_000, 100);
+    private CacheManager localCaches;
+    private CacheManager remoteCaches;
+    private CacheInvalidationBus localBus;
+    private CacheInvalidationBus remoteBus;
+
+    @BeforeEach
+    void setUp() {
+        localCaches = new CaffeineCacheManager(CacheConfig.PRODUCTS_CACHE, CacheConfig.USERS_CACHE);
+        remoteCaches = new CaffeineCacheManager(CacheConfig.PRODUCTS_CACHE, CacheConfig.USERS_CACHE);
+        localBus = new CacheInvalidationBus(transport, localCaches, productRepository, localDenylist, revokedTokenRepository,
+                localPublisher, new SimpleMeterRegistry(), Duration.ofHours(1), Duration.ofHours(1));
+        remoteBus = new CacheInvalidationBus(transport, remoteCaches, productRepository, remoteDenylist, revokedTokenRepository,
+                remotePublisher, new SimpleMeterRegistry(), Duration.ofHours(1), Duration.ofHours(1));
+        localBus.start();
+        remoteBus.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        localBus.stop();
+        remoteBus.stop();
+    }
+
+    @Test
+    void givenCommittedChange_whenFlushed_thenOlderRemoteEntryEvicted() {
+        remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).put(1L, product(1L, 3L));
+        remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).put(2L, product(2L, 5L));
+        localCaches.getCache(CacheConfig.PRODUCTS_CACHE).put(1L, product(1L, 4L));
+
+        localBus.onProductChanged(new ProductChangedEvent(List.of(product(1L, 4L), product(2L, 5L))));
+        localBus.flush();
+
+        assertNull(remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).get(1L));
+        assertNotNull(remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).get(2L));
+        assertNotNull(localCaches.getCache(CacheConfig.PRODUCTS_CACHE).get(1L));
+        verify(remotePublisher).publishEvent(new ProductsInvalidatedEvent(Set.of(1L, 2L)));
+        verifyNoInteractions(localPublisher);
+    }
+
+    @Test
+    void givenInvalidatedUser_whenFlushed_thenEvictedEverywhere() {
+        localCaches.getCache(CacheConfig.USERS_CACHE).put("user", "details");
+        remoteCaches.getCache(CacheConfig.USERS_CACHE).put("user name", "details");
+        remoteCaches.getCache(CacheConfig.USERS_CACHE).put("other", "details");
+
+        localBus.invalidateUser("user");
+        localBus.invalidateUser("user name");
+        localBus.flush();
+
+        assertNull(localCaches.getCache(CacheConfig.USERS_CACHE).get("user"));
+        assertNull(remoteCaches.getCache(CacheConfig.USERS_CACHE).get("user name"));
+        assertNotNull(remoteCaches.getCache(CacheConfig.USERS_CACHE).get("other"));
+    }
+
+    @Test
+    void givenRevokedToken_whenFlushed_thenStoredAndDeniedEverywhere() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        localBus.revokeToken("token-id", expiresAt);
+
+        verify(revokedTokenRepository).save(argThat(token -> token.getJti().equals("token-id")
+                && token.getExpiresAt().equals(expiresAt)));
+        assertTrue(localDenylist.isRevoked("token-id"));
+        assertFalse(remoteDenylist.isRevoked("token-id"));
+        localBus.flush();
+        assertTrue(remoteDenylist.isRevoked("token-id"));
+        verifyNoInteractions(remotePublisher);
+    }
+
+    @Test
+    void givenExpiredToken_whenRevoked_thenNotStored() {
+        localBus.revokeToken("token-id", Instant.now().minusSeconds(1));
+
+        verify(revokedTokenRepository, never()).save(any());
+        assertFalse(localDenylist.isRevoked("token-id"));
+    }
+
+    @Test
+    void givenStoredRevocations_whenStarted_thenUnexpiredOnesDenied() {
+        TokenDenylist denylist = new TokenDenylist(new SimpleMeterRegistry(), 60_000, 100);
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class)))
+                .thenReturn(List.of(new RevokedToken("token-id", Instant.now().plusSeconds(60))));
+        CacheInvalidationBus bus = new CacheInvalidationBus(new InProcessInvalidationTransport(), localCaches, productRepository,
+                denylist, revokedTokenRepository, localPublisher, new SimpleMeterRegistry(), Duration.ofHours(1), Duration.ofHours(1));
+
+        bus.start();
+        try {
+            assertTrue(denylist.isRevoked("token-id"));
+            verify(revokedTokenRepository, atLeastOnce()).deleteExpired(any(Instant.class));
+        } finally {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void givenRevocationMissedWithItsMessage_whenGapReported_thenReloadedFromTable() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class)))
+                .thenReturn(List.of(new RevokedToken("token-id", Instant.now().plusSeconds(60))));
+
+        remoteBus.onGap();
+
+        assertTrue(remoteDenylist.isRevoked("token-id"));
+    }
+
+    @Test
+    void givenStaleAndDeletedEntries_whenVerified_thenEvicted() {
+        remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).put(1L, product(1L, 3L));
+        remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).put(2L, product(2L, 5L));
+        remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).put(3L, product(3L, 1L));
+        when(productRepository.findVersionsByIdIn(anyCollection()))
+                .thenReturn(List.of(new ProductVersion(1L, 4L), new ProductVersion(2L, 5L)));
+
+        remoteBus.verifyCachedProducts();
+
+        assertNull(remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).get(1L));
+        assertNotNull(remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).get(2L));
+        assertNull(remoteCaches.getCache(CacheConfig.PRODUCTS_CACHE).get(3L));
+    }
+
+    @Test
+    void givenGap_whenReported_thenUsersClearedAndReadModelsRefreshed() {
+        remoteCaches.getCache(CacheConfig.USERS_CACHE).put("user", "details");
+
+        remoteBus.onGap();
+
+        assertNull(remoteCaches.getCache(CacheConfig.USERS_CACHE).get("user"));
+        verify(remotePublisher).publishEvent(new ProductsInvalidatedEvent(Set.of()));
+    }
+
+    private ProductDto product(Long id, Long version) {
+        return ProductDto.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(1.0)
+                .quantity(1)
+                .version(version)
+                .build();
+    }
+}
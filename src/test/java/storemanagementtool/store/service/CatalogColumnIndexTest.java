@@ -0,0 +1,199 @@
+package storemanagementtool.store.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.dto.CatalogStatsDto;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductSortField;
+import storemanagementtool.store.dto.ProductVersion;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CatalogColumnIndexTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    @Test
+    void givenIndexNotLoaded_whenQueried_thenRejected() {
+        CatalogColumnIndex index = buildIndex();
+
+        assertThrows(RejectedExecutionException.class, () -> index.getStats(null));
+    }
+
+    @Test
+    void givenProducts_whenFindCheapProductsByStock_thenFilteredAndSorted() {
+        CatalogColumnIndex index = load(buildProduct(1L, "Apple", 2.5, 10), buildProduct(2L, "Pear", 1.25, 3),
+                buildProduct(3L, "Plum", 9.99, 50), buildProduct(4L, "apricot", 1.0, 3));
+
+        List<ProductDto> result = index.findProducts(ProductSearchCriteria.builder().maxPrice(5.0).build(),
+                ProductSortField.QUANTITY, Sort.Direction.DESC, 2);
+
+        assertEquals(List.of(1L, 4L), result.stream().map(ProductDto::getId).toList());
+        assertEquals(2.5, result.get(0).getPrice());
+        assertEquals(List.of(4L, 1L), index.findProducts(ProductSearchCriteria.builder().name("AP").build(),
+                ProductSortField.PRICE, Sort.Direction.ASC, 10).stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void givenProducts_whenGetStats_thenTotalsComputed() {
+        CatalogColumnIndex index = load(buildProduct(1L, "Apple", 2.5, 10), buildProduct(2L, "Pear", 1.25, 4));
+
+        CatalogStatsDto stats = index.getStats(null);
+
+        assertEquals(2, stats.getProductCount());
+        assertEquals(14, stats.getTotalQuantity());
+        assertEquals(30.0, stats.getInventoryValue());
+        assertEquals(1.25, stats.getMinPrice());
+        assertEquals(2.5, stats.getMaxPrice());
+        assertNull(index.getStats(ProductSearchCriteria.builder().minQuantity(100).build()).getMinPrice());
+    }
+
+    @Test
+    void givenCommittedChanges_whenQueried_thenNewestVersionApplied() throws Exception {
+        CatalogColumnIndex index = load(buildProduct(1L, "Apple", 2.5, 10), buildProduct(3L, "Plum", 9.99, 50));
+
+        index.onProductChanged(new ProductChangedEvent(List.of(
+                buildDto(2L, "Pear", 1.0, 5, 0L),
+                buildDto(1L, "Apple", 2.5, 7, 2L))));
+        index.onProductChanged(new ProductChangedEvent(List.of(buildDto(1L, "Apple", 2.5, 9, 1L))));
+        index.awaitApplied();
+
+        List<ProductDto> result = index.findProducts(null, ProductSortField.ID, Sort.Direction.ASC, 10);
+        assertEquals(List.of(1L, 2L, 3L), result.stream().map(ProductDto::getId).toList());
+        assertEquals(7, result.get(0).getQuantity());
+    }
+
+    @Test
+    void givenScanRunning_whenProductChanges_thenCommittingThreadDoesNotWait() throws Exception {
+        CatalogColumnIndex index = load(buildProduct(1L, "Apple", 2.5, 10));
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReentrantReadWriteLock lock = (ReentrantReadWriteLock) ReflectionTestUtils.getField(index, "lock");
+        Thread reader = new Thread(() -> {
+            lock.readLock().lock();
+            try {
+                scanning.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+        reader.start();
+        scanning.await();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+                index.onProductChanged(new ProductChangedEvent(List.of(buildDto(1L, "Apple", 2.5, 4, 1L)))));
+        release.countDown();
+        reader.join();
+        index.awaitApplied();
+
+        assertEquals(4, index.findProducts(null, ProductSortField.ID, Sort.Direction.ASC, 1).get(0).getQuantity());
+    }
+
+    @Test
+    void givenInvalidationOfUnknownProducts_whenReported_thenChangedAndMissingProductsReread() throws Exception {
+        CatalogColumnIndex index = load(buildProduct(1L, "Apple", 2.5, 10), buildProduct(2L, "Pear", 1.25, 3));
+        when(productRepository.findVersionsAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new ProductVersion(1L, 0L), new ProductVersion(2L, 4L), new ProductVersion(3L, 0L)));
+        Product pear = buildProduct(2L, "Pear", 1.25, 1);
+        pear.setVersion(4L);
+        when(productRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(pear, buildProduct(3L, "Plum", 9.99, 50)));
+
+        index.onProductsInvalidated(new ProductsInvalidatedEvent(Set.of()));
+        index.awaitReconciled();
+        index.awaitApplied();
+
+        List<ProductDto> result = index.findProducts(null, ProductSortField.ID, Sort.Direction.ASC, 10);
+        assertEquals(List.of(1L, 2L, 3L), result.stream().map(ProductDto::getId).toList());
+        assertEquals(1, result.get(1).getQuantity());
+        verify(productRepository, never()).findAllById(List.of(1L));
+    }
+
+    @Test
+    void givenInvalidatedProducts_whenReported_thenRereadOffTheReportingThread() throws Exception {
+        CatalogColumnIndex index = load(buildProduct(1L, "Apple", 2.5, 10));
+        CountDownLatch release = new CountDownLatch(1);
+        Product apple = buildProduct(1L, "Apple", 2.5, 3);
+        apple.setVersion(1L);
+        when(productRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            release.await();
+            return List.of(apple);
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+                index.onProductsInvalidated(new ProductsInvalidatedEvent(Set.of(1L))));
+        release.countDown();
+        index.awaitReconciled();
+        index.awaitApplied();
+
+        assertEquals(3, index.findProducts(null, ProductSortField.ID, Sort.Direction.ASC, 1).get(0).getQuantity());
+    }
+
+    @Test
+    void givenLargeCatalog_whenQueried_thenParallelChunksMerged() {
+        CatalogColumnIndex index = load(LongStream.rangeClosed(1, 100_000)
+                .mapToObj(id -> buildProduct(id, "Product " + id, id % 1000 / 100.0, (int) (id % 7)))
+                .toArray(Product[]::new));
+
+        List<ProductDto> result = index.findProducts(ProductSearchCriteria.builder().minPrice(9.99).build(),
+                ProductSortField.QUANTITY, Sort.Direction.DESC, 3);
+
+        assertEquals(100, index.getStats(ProductSearchCriteria.builder().minPrice(9.99).build()).getProductCount());
+        assertEquals(List.of(97999L, 90999L, 83999L), result.stream().map(ProductDto::getId).toList());
+        assertEquals(100_000, index.getStats(null).getProductCount());
+    }
+
+    private CatalogColumnIndex load(Product... products) {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(products));
+        CatalogColumnIndex index = buildIndex();
+        index.load();
+        return index;
+    }
+
+    private CatalogColumnIndex buildIndex() {
+        return new CatalogColumnIndex(productRepository, new ProductMapper(), mock(EntityManager.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+    }
+
+    private Product buildProduct(Long id, String name, double price, int quantity) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .price(price)
+                .quantity(quantity)
+                .version(0L)
+                .build();
+    }
+
+    private ProductDto buildDto(Long id, String name, double price, int quantity, Long version) {
+        return ProductDto.builder()
+                .id(id)
+                .name(name)
+                .price(price)
+                .quantity(quantity)
+                .version(version)
+                .build();
+    }
+}
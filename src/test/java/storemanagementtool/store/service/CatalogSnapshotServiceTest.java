@@ -0,0 +1,127 @@
+package storemanagementtool.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import storemanagementtool.store.controller.ProductController;
+import storemanagementtool.store.dto.CatalogVersion;
+import storemanagementtool.store.dto.ExportFormat;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CatalogSnapshotServiceTest {
+    private static final String CATALOG = "[{\"id\":1,\"name\":\"Apple\",\"price\":2.5,\"quantity\":10,\"version\":0}]";
+
+    private final ProductExportService productExportService = mock(ProductExportService.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private CatalogSnapshotService catalogSnapshotService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(productRepository.findCatalogVersion()).thenReturn(new CatalogVersion(7L, 9L));
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(CATALOG.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productExportService).exportProducts(eq(ExportFormat.JSON), any(OutputStream.class));
+        catalogSnapshotService = new CatalogSnapshotService(productExportService, productRepository,
+                Duration.ofMillis(50), Duration.ofMinutes(5), 1.0);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(mock(ProductService.class),
+                        productExportService, mock(ProductImportService.class), mock(ProductRepriceService.class),
+                        mock(InventoryReservationService.class), mock(ProductEventBroadcaster.class),
+                        catalogSnapshotService, mock(StoreStockService.class)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogSnapshotService.shutdown();
+    }
+
+    @Test
+    void givenSnapshotNotBuiltYet_whenGetSnapshot_thenServiceUnavailable() throws Exception {
+        mockMvc.perform(get("/api/v1/product/snapshot"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void givenSnapshot_whenClientAcceptsGzip_thenPrecompressedBytesServed() throws Exception {
+        catalogSnapshotService.requestRebuild();
+        awaitSnapshot();
+
+        byte[] body = mockMvc.perform(get("/api/v1/product/snapshot").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-gzip\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(CATALOG, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(get("/api/v1/product/snapshot").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(CATALOG));
+        mockMvc.perform(get("/api/v1/product/snapshot").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void givenBurstOfWrites_whenRebuildDelayPasses_thenOneRebuild() throws Exception {
+        catalogSnapshotService.requestRebuild();
+        awaitSnapshot();
+
+        for (int i = 0; i < 100; i++) {
+            catalogSnapshotService.onProductChanged(new ProductChangedEvent(List.of()));
+        }
+        Thread.sleep(300);
+
+        verify(productExportService, times(2)).exportProducts(eq(ExportFormat.JSON), any(OutputStream.class));
+    }
+
+    @Test
+    void givenSlowRebuild_whenWritesKeepComing_thenNextRebuildWaitsOutTheDutyCycle() throws Exception {
+        catalogSnapshotService.shutdown();
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            invocation.getArgument(1, OutputStream.class).write(CATALOG.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productExportService).exportProducts(eq(ExportFormat.JSON), any(OutputStream.class));
+        // 100ms of building at 25% means at least 300ms of rest before the next rebuild
+        catalogSnapshotService = new CatalogSnapshotService(productExportService, productRepository,
+                Duration.ofMillis(50), Duration.ofMinutes(5), 0.25);
+        catalogSnapshotService.requestRebuild();
+        awaitSnapshot();
+
+        catalogSnapshotService.onProductChanged(new ProductChangedEvent(List.of()));
+
+        verify(productExportService, after(200).times(1)).exportProducts(eq(ExportFormat.JSON), any(OutputStream.class));
+        verify(productExportService, timeout(2000).times(2)).exportProducts(eq(ExportFormat.JSON), any(OutputStream.class));
+    }
+
+    private void awaitSnapshot() throws InterruptedException {
+        for (int i = 0; i < 200 && catalogSnapshotService.getSnapshot() == null; i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(catalogSnapshotService.getSnapshot());
+    }
+}
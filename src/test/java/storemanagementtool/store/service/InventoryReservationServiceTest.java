@@ -0,0 +1,230 @@
+package storemanagementtool.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ReservationDto;
+import storemanagementtool.store.exception.custom.ProductOutOfStockException;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryReservationServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductService productService;
+
+    private InventoryReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new InventoryReservationService(productRepository, productService, Duration.ofMinutes(1), 4, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationService.shutdown();
+    }
+
+    @Test
+    void givenStock_whenReserve_thenHoldTakenFromMemoryWithoutWriting() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+
+        ReservationDto reservation = reservationService.reserve(1L, 3);
+
+        assertEquals(1L, reservation.getProductId());
+        assertEquals(3, reservation.getQuantity());
+        assertNotNull(reservation.getExpiresAt());
+        assertEquals(7, reservationService.available(1L));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void givenStockSpreadAcrossStripes_whenReserveAll_thenHoldGranted() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(3)));
+
+        reservationService.reserve(1L, 3);
+
+        assertEquals(0, reservationService.available(1L));
+    }
+
+    @Test
+    void givenNotEnoughStock_whenReserve_thenThrowsProductOutOfStockException() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(2)));
+
+        assertThrows(ProductOutOfStockException.class, () -> reservationService.reserve(1L, 3));
+        assertFalse(reservationService.isTracked(1L));
+    }
+
+    @Test
+    void givenProductDoesNotExist_whenReserve_thenThrowsNoSuchElementException() {
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> reservationService.reserve(1L, 1));
+    }
+
+    @Test
+    void givenHolds_whenCancel_thenStockReturnedAndProductForgottenWithLastHold() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        ReservationDto reservation = reservationService.reserve(1L, 4);
+        ReservationDto other = reservationService.reserve(1L, 1);
+
+        reservationService.cancel(reservation.getId());
+
+        assertEquals(9, reservationService.available(1L));
+        reservationService.cancel(other.getId());
+        assertFalse(reservationService.isTracked(1L));
+        assertThrows(NoSuchElementException.class, () -> reservationService.cancel(reservation.getId()));
+    }
+
+    @Test
+    void givenHoldNotConfirmedInTime_whenTtlPasses_thenStockReturned() throws Exception {
+        reservationService.shutdown();
+        reservationService = new InventoryReservationService(productRepository, productService, Duration.ofMillis(20), 4, Duration.ofMillis(10));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        ReservationDto reservation = reservationService.reserve(1L, 4);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reservationService.isTracked(1L) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(reservationService.isTracked(1L));
+        assertThrows(NoSuchElementException.class, () -> reservationService.confirm(reservation.getId()));
+    }
+
+    @Test
+    void givenHold_whenConfirm_thenStockBoughtInDatabase() {
+        ProductDto bought = ProductDto.builder().id(1L).quantity(6).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productService.buyProduct(1L, 4)).thenReturn(bought);
+        ReservationDto reservation = reservationService.reserve(1L, 4);
+
+        assertEquals(bought, reservationService.confirm(reservation.getId()));
+        assertFalse(reservationService.isTracked(1L));
+    }
+
+    @Test
+    void givenOtherHold_whenConfirmedPurchaseReseedsStock_thenConfirmedUnitsCountedOnce() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        ReservationDto reservation = reservationService.reserve(1L, 4);
+        reservationService.reserve(1L, 1);
+        when(productService.buyProduct(1L, 4)).thenAnswer(invocation -> {
+            // the purchase's own change event arrives before buyProduct returns
+            reservationService.onProductChanged(new ProductChangedEvent(List.of(buildProductDto(6, 1L))));
+            return buildProductDto(6, 1L);
+        });
+
+        reservationService.confirm(reservation.getId());
+
+        assertEquals(5, reservationService.available(1L));
+    }
+
+    @Test
+    void givenStockSoldAroundReservations_whenConfirm_thenFailsAndStockReseeded() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)), Optional.of(buildProduct(1)));
+        when(productService.buyProduct(1L, 4)).thenThrow(new ProductOutOfStockException("Product out of stock"));
+        ReservationDto reservation = reservationService.reserve(1L, 4);
+
+        reservationService.reserve(1L, 1);
+
+        assertThrows(ProductOutOfStockException.class, () -> reservationService.confirm(reservation.getId()));
+        assertThrows(ProductOutOfStockException.class, () -> reservationService.reserve(1L, 1));
+        assertEquals(0, reservationService.available(1L));
+    }
+
+    @Test
+    void givenHoldAndCommittedPurchase_whenProductChanged_thenStockReseededFromWrite() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        reservationService.reserve(1L, 4);
+
+        reservationService.onProductChanged(new ProductChangedEvent(List.of(buildProductDto(7, 2L))));
+        assertEquals(3, reservationService.available(1L));
+        reservationService.onProductChanged(new ProductChangedEvent(List.of(buildProductDto(9, 1L))));
+        assertEquals(3, reservationService.available(1L));
+
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void givenHold_whenInvalidatedElsewhere_thenStockReReadOnNextReservation() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)), Optional.of(buildProduct(6)));
+        reservationService.reserve(1L, 4);
+
+        reservationService.onProductsInvalidated(new ProductsInvalidatedEvent(Set.of()));
+        reservationService.reserve(1L, 1);
+
+        assertEquals(1, reservationService.available(1L));
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void givenManyConcurrentBuyers_whenReserve_thenNeverMoreThanStockHeld() throws Exception {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(1000)));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> buyers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                buyers.add(() -> {
+                    int granted = 0;
+                    for (int j = 0; j < 500; j++) {
+                        try {
+                            reservationService.reserve(1L, 1 + j % 3);
+                            granted += 1 + j % 3;
+                        } catch (ProductOutOfStockException e) {
+                            // sold out for this size
+                        }
+                    }
+                    return granted;
+                });
+            }
+            int totalGranted = 0;
+            for (Future<Integer> result : executor.invokeAll(buyers)) {
+                totalGranted += result.get();
+            }
+
+            assertEquals(1000, totalGranted + reservationService.available(1L));
+            assertTrue(totalGranted <= 1000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ProductDto buildProductDto(Integer quantity, Long version) {
+        return ProductDto.builder()
+                .id(1L)
+                .name("Sample Product")
+                .price(1.0)
+                .quantity(quantity)
+                .version(version)
+                .build();
+    }
+
+    private Product buildProduct(Integer quantity) {
+        return Product.builder()
+                .id(1L)
+                .name("Sample Product")
+                .price(1.0)
+                .quantity(quantity)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package storemanagementtool.store.service;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import storemanagementtool.store.controller.ProductController;
+import storemanagementtool.store.dto.ProductDto;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class ProductEventBroadcasterTest {
+    private ProductEventBroadcaster broadcaster;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ProductEventBroadcaster(2, 2, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void givenSubscriberFilteredById_whenProductsChange_thenOnlyWatchedProductSent() throws Exception {
+        MockHttpServletResponse response = subscribe("/api/v1/product/events?ids=1");
+
+        broadcaster.onProductChanged(new ProductChangedEvent(List.of(buildProduct(1L, 3L), buildProduct(2L, 1L))));
+
+        String body = awaitBody(response, content -> content.contains("event:products"));
+        assertTrue(body.contains("\"id\":1"));
+        assertTrue(body.contains("\"version\":3"));
+        assertFalse(body.contains("\"id\":2"));
+    }
+
+    @Test
+    void givenUnfilteredSubscriber_whenProductChanges_thenChangeSent() throws Exception {
+        MockHttpServletResponse response = subscribe("/api/v1/product/events");
+
+        broadcaster.onProductChanged(new ProductChangedEvent(List.of(buildProduct(2L, 1L))));
+
+        assertTrue(awaitBody(response, content -> content.contains("\"id\":2")).contains("\"quantity\":10"));
+    }
+
+    @Test
+    void givenSubscriberLimitReached_whenSubscribe_thenRejected() throws Exception {
+        subscribe("/api/v1/product/events");
+        subscribe("/api/v1/product/events?ids=1");
+
+        assertThrows(RejectedExecutionException.class, () -> broadcaster.subscribe(List.of()));
+        assertEquals(2, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void givenSubscriberFallsTooFarBehind_whenMoreProductsChange_thenDisconnected() throws Exception {
+        subscribe("/api/v1/product/events");
+        broadcaster.shutdown();
+
+        broadcaster.onProductChanged(new ProductChangedEvent(List.of(buildProduct(1L, 1L), buildProduct(2L, 1L),
+                buildProduct(3L, 1L))));
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void givenSubscriberWhoseWritesStall_whenWriteTimesOut_thenDisconnectedAndOthersStillServed() throws Exception {
+        broadcaster.shutdown();
+        broadcaster = new ProductEventBroadcaster(2, 2, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMillis(100));
+        // the only sender thread blocks in the stalled client's socket write until interrupted
+        mockMvc = MockMvcBuilders.standaloneSetup(controller())
+                .addFilter((request, response, chain) -> chain.doFilter(request,
+                        "1".equals(request.getParameter("ids")) ? new StalledResponse((HttpServletResponse) response) : response))
+                .build();
+        subscribe("/api/v1/product/events?ids=1");
+        MockHttpServletResponse healthy = subscribe("/api/v1/product/events?ids=2");
+
+        broadcaster.onProductChanged(new ProductChangedEvent(List.of(buildProduct(1L, 1L))));
+        broadcaster.onProductChanged(new ProductChangedEvent(List.of(buildProduct(2L, 1L))));
+
+        assertTrue(awaitBody(healthy, content -> content.contains("\"id\":2")).contains("\"id\":2"));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    private ProductController controller() {
+        return new ProductController(mock(ProductService.class),
+                mock(ProductExportService.class), mock(ProductImportService.class), mock(ProductRepriceService.class),
+                mock(InventoryReservationService.class), broadcaster, mock(CatalogSnapshotService.class), mock(StoreStockService.class));
+    }
+
+    private MockHttpServletResponse subscribe(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    /** Waits for {@code condition}, and for the event it matched to be written out in full. */
+    private String awaitBody(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!(condition.test(content) && content.endsWith("\n\n")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+
+    private static final class StalledResponse extends HttpServletResponseWrapper {
+        private StalledResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    try {
+                        Thread.sleep(Long.MAX_VALUE);
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException("write interrupted");
+                    }
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+        }
+    }
+
+    private ProductDto buildProduct(Long id, Long version) {
+        return ProductDto.builder()
+                .id(id)
+                .name("Sample Product")
+                .price(1.0)
+                .quantity(10)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package storemanagementtool.store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import storemanagementtool.store.dto.ExportFormat;
+import storemanagementtool.store.mapper.ProductCsvFormat;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExportServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductExportService productExportService;
+
+    @BeforeEach
+    void setUp() {
+        productExportService = new ProductExportService(productRepository, new ProductMapper(), new ProductCsvFormat(),
+                new ObjectMapper(), entityManager);
+    }
+
+    @Test
+    void givenProducts_whenExportAsNdjson_thenOneJsonObjectPerLine() throws Exception {
+        Product first = buildProduct(1L, "Apple");
+        Product second = buildProduct(2L, "Pear");
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(first, second));
+
+        String output = export(ExportFormat.NDJSON);
+
+        assertEquals("{\"id\":1,\"name\":\"Apple\",\"price\":2.5,\"quantity\":10,\"version\":0}\n"
+                + "{\"id\":2,\"name\":\"Pear\",\"price\":2.5,\"quantity\":10,\"version\":0}\n", output);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void givenProducts_whenExportAsJson_thenSingleJsonArray() throws Exception {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(buildProduct(1L, "Apple"), buildProduct(2L, "Pear")));
+
+        String output = export(ExportFormat.JSON);
+
+        assertEquals("[{\"id\":1,\"name\":\"Apple\",\"price\":2.5,\"quantity\":10,\"version\":0},"
+                + "{\"id\":2,\"name\":\"Pear\",\"price\":2.5,\"quantity\":10,\"version\":0}]", output);
+    }
+
+    @Test
+    void givenNoProducts_whenExportAsJson_thenEmptyArray() throws Exception {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.empty());
+
+        assertEquals("[]", export(ExportFormat.JSON));
+    }
+
+    @Test
+    void givenProductNameWithComma_whenExportAsCsv_thenNameIsQuoted() throws Exception {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(buildProduct(1L, "Milk, \"whole\"")));
+
+        String output = export(ExportFormat.CSV);
+
+        assertEquals(ProductCsvFormat.HEADER + "\n1,\"Milk, \"\"whole\"\"\",2.5,10\n", output);
+    }
+
+    @Test
+    void givenLargePrice_whenExportAsCsv_thenPriceIsNotInScientificNotation() throws Exception {
+        Product product = buildProduct(1L, "Tractor");
+        product.setPrice(12500000.5);
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(product));
+
+        String output = export(ExportFormat.CSV);
+
+        assertEquals(ProductCsvFormat.HEADER + "\n1,Tractor,12500000.5,10\n", output);
+    }
+
+    @Test
+    void givenNoProducts_whenExportAsCsv_thenOnlyHeaderWritten() throws Exception {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.empty());
+
+        assertEquals(ProductCsvFormat.HEADER + "\n", export(ExportFormat.CSV));
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        productExportService.exportProducts(format, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private Product buildProduct(Long id, String name) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .price(2.5)
+                .quantity(10)
+                .version(0L)
+                .build();
+    }
+}
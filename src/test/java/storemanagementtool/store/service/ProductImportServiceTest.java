@@ -0,0 +1,122 @@
+package storemanagementtool.store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.dto.ProductImportResponse;
+import storemanagementtool.store.mapper.ProductCsvFormat;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Session session;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Captor
+    private ArgumentCaptor<List<Product>> chunkCaptor;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(productRepository, new ProductMapper(), new ProductCsvFormat(),
+                new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), entityManager,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher);
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+    }
+
+    @Test
+    void givenJsonArray_whenImportJson_thenValidRowsSavedInBatchesAndInvalidRowsReported() throws Exception {
+        String json = "[{\"name\":\"a\",\"price\":1.5,\"quantity\":1},"
+                + "{\"name\":\"\",\"price\":1.5,\"quantity\":1},"
+                + "{\"name\":\"b\",\"price\":\"cheap\",\"quantity\":1},"
+                + "{\"name\":\"c\",\"price\":2.0,\"quantity\":3},"
+                + "{\"name\":\"d\",\"price\":2.0,\"quantity\":3}]";
+
+        ProductImportResponse response = productImportService.importJson(stream(json));
+
+        assertEquals(3, response.getImported());
+        assertEquals(2, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertEquals("Product name must not be empty.", response.getErrors().get(0).getMessage());
+        assertEquals(3, response.getErrors().get(1).getRow());
+        verify(productRepository, times(2)).saveAll(chunkCaptor.capture());
+        assertEquals(2, chunkCaptor.getAllValues().get(0).size());
+        assertEquals(1, chunkCaptor.getAllValues().get(1).size());
+        verify(session, times(2)).setJdbcBatchSize(2);
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void givenMalformedJson_whenImportJson_thenRowsBeforeTheErrorAreKept() throws Exception {
+        ProductImportResponse response = productImportService.importJson(
+                stream("[{\"name\":\"a\",\"price\":1.5,\"quantity\":1}, {\"name\": oops"));
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void givenCsvWithQuotedNames_whenImportCsv_thenRowsImported() throws Exception {
+        String csv = "id,name,price,quantity\n7,\"Milk, \"\"whole\"\"\",1.25,4\r\n8,Bread,x,1\n";
+
+        ProductImportResponse response = productImportService.importCsv(stream(csv));
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        verify(productRepository).saveAll(chunkCaptor.capture());
+        Product product = chunkCaptor.getValue().get(0);
+        assertEquals("Milk, \"whole\"", product.getName());
+        assertNull(product.getId());
+    }
+
+    @Test
+    void givenChunkFailsToSave_whenImport_thenRowsRetriedIndividually() throws Exception {
+        when(productRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("chunk"))
+                .thenReturn(List.of())
+                .thenThrow(new DataIntegrityViolationException("row"));
+
+        ProductImportResponse response = productImportService.importCsv(stream("name,price,quantity\na,1,1\nb,1,1\n"));
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getRow());
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+package storemanagementtool.store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.dto.BulkRepriceRequest;
+import storemanagementtool.store.dto.PriceChange;
+import storemanagementtool.store.dto.PriceRounding;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductRepriceServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache productCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductRepriceService productRepriceService;
+
+    @BeforeEach
+    void setUp() {
+        productRepriceService = new ProductRepriceService(productRepository, new ProductMapper(), cacheManager,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher);
+        ReflectionTestUtils.setField(productRepriceService, "chunkSize", 2);
+        lenient().when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+    }
+
+    @Test
+    void givenAbsolutePrices_whenReprice_thenWrittenInChunksAndCacheEvicted() {
+        when(productRepository.updatePrices(any())).thenReturn(new int[]{1, 1}, new int[]{0});
+
+        long updated = productRepriceService.reprice(BulkRepriceRequest.builder()
+                .prices(List.of(price(3L, 3.0), price(1L, 1.0), price(2L, 2.0)))
+                .build()).getUpdated();
+
+        assertEquals(2, updated);
+        SortedMap<Long, Double> firstChunk = new TreeMap<>();
+        firstChunk.put(1L, 1.0);
+        firstChunk.put(2L, 2.0);
+        verify(productRepository).updatePrices(firstChunk);
+        verify(productRepository).updatePrices(new TreeMap<>(Map.of(3L, 3.0)));
+        verify(productCache).evict(1L);
+        verify(productCache).evict(2L);
+        verify(productCache, never()).evict(3L);
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void givenPriceRange_whenRepriceByPercent_thenKeysetChunksAdjusted() {
+        when(productRepository.findIdsInPriceRange(eq(0L), eq(5.0), eq(Double.MAX_VALUE), any(Limit.class))).thenReturn(List.of(1L, 4L));
+        when(productRepository.findIdsInPriceRange(eq(4L), eq(5.0), eq(Double.MAX_VALUE), any(Limit.class))).thenReturn(List.of(9L));
+        when(productRepository.adjustPrices(anyList(), eq(1.1), eq(PriceRounding.CENTS), eq(5.0), eq(Double.MAX_VALUE)))
+                .thenReturn(2, 1);
+
+        long updated = productRepriceService.reprice(BulkRepriceRequest.builder()
+                .minPrice(5.0)
+                .percentChange(10.0)
+                .rounding(PriceRounding.CENTS)
+                .build()).getUpdated();
+
+        assertEquals(3, updated);
+        verify(productRepository).adjustPrices(List.of(1L, 4L), 1.1, PriceRounding.CENTS, 5.0, Double.MAX_VALUE);
+        verify(productRepository).adjustPrices(List.of(9L), 1.1, PriceRounding.CENTS, 5.0, Double.MAX_VALUE);
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void givenIdsAndPriceRange_whenReprice_thenRejected() {
+        BulkRepriceRequest request = BulkRepriceRequest.builder()
+                .ids(List.of(1L))
+                .maxPrice(10.0)
+                .rounding(PriceRounding.WHOLE)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> productRepriceService.reprice(request));
+        assertThrows(IllegalArgumentException.class, () -> productRepriceService.reprice(new BulkRepriceRequest()));
+        verifyNoInteractions(productRepository);
+    }
+
+    private PriceChange price(Long productId, double price) {
+        return new PriceChange(productId, price);
+    }
+}
@@ -0,0 +1,72 @@
+package storemanagementtool.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, ProductService.class, ProductMapper.class})
+public class ProductServiceCacheTest {
+    @MockBean
+    private ProductRepository productRepository;
+    @MockBean
+    private StockWriteBehind stockWriteBehind;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void givenProductCached_whenFindProductByIdAgain_thenDatabaseNotHit() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+
+        productService.findProductById(1L);
+        ProductDto result = productService.findProductById(1L);
+
+        assertEquals(10, result.getQuantity());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void givenProductCached_whenBuyProduct_thenNextReadSeesNewStock() {
+        when(productRepository.findById(2L)).thenReturn(Optional.of(buildProduct(10)), Optional.of(buildProduct(7)));
+        when(productRepository.decrementQuantity(2L, 3)).thenReturn(1);
+
+        productService.findProductById(2L);
+        productService.buyProduct(2L, 3);
+
+        assertEquals(7, productService.findProductById(2L).getQuantity());
+        verify(productRepository, times(3)).findById(2L);
+    }
+
+    @Test
+    void givenProductAdded_whenFindProductById_thenServedFromCache() {
+        Product saved = buildProduct(5);
+        saved.setId(3L);
+        when(productRepository.save(any(Product.class))).thenReturn(saved);
+
+        productService.addProduct(ProductDto.builder().name("Sample Product").price(1.0).quantity(5).build());
+        ProductDto result = productService.findProductById(3L);
+
+        assertEquals(5, result.getQuantity());
+        verify(productRepository, never()).findById(3L);
+    }
+
+    private Product buildProduct(Integer quantity) {
+        return Product.builder()
+                .id(2L)
+                .name("Sample Product")
+                .price(1.0)
+                .quantity(quantity)
+                .build();
+    }
+}
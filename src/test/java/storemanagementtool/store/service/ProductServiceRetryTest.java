@@ -0,0 +1,76 @@
+package storemanagementtool.store.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.config.RetryConfig;
+import storemanagementtool.store.mapper.ProductMapper;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {RetryConfig.class, CacheConfig.class, ProductService.class, ProductMapper.class, SimpleMeterRegistry.class},
+        properties = {"application.product.retry.delay-ms=1", "application.product.retry.max-delay-ms=2"})
+public class ProductServiceRetryTest {
+    @MockBean
+    private ProductRepository productRepository;
+    @MockBean
+    private StockWriteBehind stockWriteBehind;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void givenConcurrentWriterWinsOnce_whenUpdateProductPrice_thenRetriedAndUpdated() {
+        double conflictsBefore = conflicts();
+        when(productRepository.findById(1L)).thenAnswer(invocation -> Optional.of(buildProduct()));
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(55.0, productService.updateProductPrice(1L, 55.0).getPrice());
+
+        verify(productRepository, times(2)).findById(1L);
+        assertEquals(conflictsBefore + 1, conflicts());
+    }
+
+    @Test
+    void givenConflictOnEveryAttempt_whenUpdateProductPrice_thenConflictSurfacesAfterMaxAttempts() {
+        double exhaustedBefore = meterRegistry.counter("product.optimistic_lock.exhausted").count();
+        when(productRepository.findById(2L)).thenAnswer(invocation -> Optional.of(buildProduct()));
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 2L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productService.updateProductPrice(2L, 55.0));
+
+        verify(productRepository, times(4)).saveAndFlush(any(Product.class));
+        assertEquals(exhaustedBefore + 1, meterRegistry.counter("product.optimistic_lock.exhausted").count());
+    }
+
+    private double conflicts() {
+        return meterRegistry.counter("product.optimistic_lock.conflicts").count();
+    }
+
+    private Product buildProduct() {
+        return Product.builder()
+                .id(1L)
+                .name("Sample Product")
+                .price(50.0)
+                .quantity(10)
+                .version(0L)
+                .build();
+    }
+}
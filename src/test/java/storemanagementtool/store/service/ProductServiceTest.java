@@ -5,7 +5,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import storemanagementtool.store.config.CacheConfig;
+import storemanagementtool.store.dto.CheckoutLine;
+import storemanagementtool.store.dto.ProductChangesDto;
 import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.dto.ProductPageDto;
+import storemanagementtool.store.dto.ProductSearchCriteria;
+import storemanagementtool.store.dto.ProductSearchResponse;
+import storemanagementtool.store.dto.ProductSortField;
 import storemanagementtool.store.exception.custom.ProductOutOfStockException;
 import storemanagementtool.store.mapper.ProductMapper;
 import storemanagementtool.store.model.Product;
@@ -15,8 +29,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +43,14 @@ public class ProductServiceTest {
     private ProductRepository productRepository;
     @Mock
     private ProductMapper productMapper;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache productCache;
+    @Mock
+    private StockWriteBehind stockWriteBehind;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private ProductService productService;
 
@@ -56,32 +81,58 @@ public class ProductServiceTest {
     }
 
     @Test
-    void givenProductsExist_whenGetAllProducts_thenProductsRetrieved() {
+    void givenProductsFitInOnePage_whenGetProducts_thenPageHasNoNextCursor() {
         Product product = buildProduct(50.0, 10);
         ProductDto productDto = buildProductDto(50.0, 10);
-        List<Product> products = List.of(product);
-        List<ProductDto> productDtos = List.of(productDto);
 
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(product));
         when(productMapper.convertToDto(any(Product.class))).thenReturn(productDto);
 
-        List<ProductDto> result = productService.getAllProducts();
+        ProductPageDto result = productService.getProducts(null, 2);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(productDtos, result);
+        assertEquals(List.of(productDto), result.getProducts());
+        assertNull(result.getNextCursor());
 
-        verify(productRepository).findAll();
-        verify(productMapper, times(products.size())).convertToDto(any(Product.class));
+        verify(productRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3));
+        verify(productMapper).convertToDto(product);
 
         verifyNoMoreInteractions(productRepository, productMapper);
     }
 
     @Test
-    void givenNoProductsExist_whenGetAllProducts_thenThrowsNoSuchElementException() {
-        when(productRepository.findAll()).thenReturn(new ArrayList<>());
+    void givenMoreProductsThanLimit_whenGetProducts_thenNextCursorIsLastReturnedId() {
+        Product first = buildProduct(1L, 50.0, 10);
+        Product second = buildProduct(2L, 50.0, 10);
+        Product third = buildProduct(3L, 50.0, 10);
+
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(first, second, third));
+        when(productMapper.convertToDto(any(Product.class))).thenReturn(buildProductDto(50.0, 10));
+
+        ProductPageDto result = productService.getProducts(0L, 2);
+
+        assertEquals(2, result.getProducts().size());
+        assertEquals(2L, result.getNextCursor());
+        verify(productMapper, times(2)).convertToDto(any(Product.class));
+    }
+
+    @Test
+    void givenNoProductsExist_whenGetProducts_thenEmptyPageReturned() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(new ArrayList<>());
+
+        ProductPageDto result = productService.getProducts(null, 100);
+
+        assertTrue(result.getProducts().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void givenLimitAboveMaximum_whenGetProducts_thenLimitIsCapped() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(new ArrayList<>());
+
+        productService.getProducts(5L, Integer.MAX_VALUE);
 
-        assertThrows(NoSuchElementException.class, () -> productService.getAllProducts());
+        verify(productRepository).findByIdGreaterThanOrderByIdAsc(5L, Limit.of(ProductService.MAX_PAGE_SIZE + 1));
     }
 
     @Test
@@ -105,6 +156,125 @@ public class ProductServiceTest {
         verifyNoMoreInteractions(productRepository, productMapper);
     }
 
+    @Test
+    void givenWriteBehindEnabled_whenBuyProduct_thenDecrementGroupCommitted() {
+        Product product = buildProduct(50.0, 7);
+        ProductDto productDto = buildProductDto(50.0, 7);
+
+        when(stockWriteBehind.isEnabled()).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.convertToDto(product)).thenReturn(productDto);
+
+        assertEquals(productDto, productService.buyProduct(1L, 3));
+
+        verify(stockWriteBehind).decrement(1L, 3);
+        verify(productRepository, never()).decrementQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    void givenFullPage_whenGetProductChanges_thenNextTokenIsLastPosition() {
+        Product first = buildProduct(1L, 50.0, 10);
+        first.setChangeTxid(42L);
+        Product second = buildProduct(2L, 50.0, 10);
+        second.setChangeTxid(42L);
+        ProductDto productDto = buildProductDto(50.0, 10);
+
+        when(productRepository.findChangeHorizon()).thenReturn(45L);
+        when(productRepository.findChangesAfter(40L, 7L, 45L, Limit.of(2))).thenReturn(List.of(first, second));
+        when(productMapper.convertToDto(first)).thenReturn(productDto);
+
+        ProductChangesDto result = productService.getProductChanges("40.7", 1);
+
+        assertEquals(List.of(productDto), result.getProducts());
+        assertEquals("42.1", result.getNextToken());
+        assertTrue(result.isHasMore());
+    }
+
+    @Test
+    void givenNoChanges_whenGetProductChanges_thenTokenMovesToHorizon() {
+        when(productRepository.findChangeHorizon()).thenReturn(45L);
+        when(productRepository.findChangesAfter(eq(40L), eq(0L), eq(45L), any(Limit.class))).thenReturn(List.of());
+
+        ProductChangesDto result = productService.getProductChanges("40.0", 100);
+
+        assertTrue(result.getProducts().isEmpty());
+        assertEquals("45.0", result.getNextToken());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void givenMalformedToken_whenGetProductChanges_thenThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductChanges("40.x", 100));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductChanges("40", 100));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductChanges("-1.0", 100));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void givenOversizedPage_whenSearchProducts_thenPageSizeClampedAndSortPassedOn() {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().name("app").build();
+        Product product = buildProduct(50.0, 10);
+        ProductDto productDto = buildProductDto(50.0, 10);
+        PageRequest expectedPage = PageRequest.of(2, ProductService.MAX_PAGE_SIZE, Sort.by(Sort.Direction.DESC, "price"));
+
+        when(productRepository.search(criteria, expectedPage)).thenReturn(new SliceImpl<>(List.of(product), expectedPage, true));
+        when(productMapper.convertToDto(product)).thenReturn(productDto);
+
+        ProductSearchResponse result = productService.searchProducts(criteria, 2, 5000, ProductSortField.PRICE, Sort.Direction.DESC);
+
+        assertEquals(List.of(productDto), result.getProducts());
+        assertEquals(ProductService.MAX_PAGE_SIZE, result.getSize());
+        assertTrue(result.isHasNext());
+    }
+
+    @Test
+    void givenPageBeyondMaxOffset_whenSearchProducts_thenThrowsIllegalArgumentException() {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProducts(criteria, Integer.MAX_VALUE, 1000, ProductSortField.ID, Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProducts(criteria, 11, 1000, ProductSortField.ID, Sort.Direction.ASC));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void givenMinPriceAboveMax_whenSearchProducts_thenThrowsIllegalArgumentException() {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().minPrice(20.0).maxPrice(10.0).build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProducts(criteria, 0, 20, ProductSortField.ID, Sort.Direction.ASC));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void givenProductExists_whenFindProductVersion_thenVersionReturnedWithoutLoadingEntity() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, productService.findProductVersion(1L));
+
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void givenProductCached_whenFindProductVersion_thenAnsweredWithoutQuery() {
+        ProductDto cached = buildProductDto(50.0, 10);
+        cached.setVersion(4L);
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productCache.get(1L, ProductDto.class)).thenReturn(cached);
+
+        assertEquals(4L, productService.findProductVersion(1L));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void givenProductDoesNotExist_whenFindProductVersion_thenThrowsNoSuchElementException() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> productService.findProductVersion(1L));
+    }
+
     @Test
     void givenProductExists_whenUpdateProductPrice_thenPriceUpdated() {
         Product product = buildProduct(50.0, 10);
@@ -112,7 +282,7 @@ public class ProductServiceTest {
         ProductDto updatedDto = buildProductDto(55.0, 10);
 
         when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
         when(productMapper.convertToDto(any(Product.class))).thenReturn(updatedDto);
 
         ProductDto result = productService.updateProductPrice(1L, 55.0);
@@ -121,8 +291,9 @@ public class ProductServiceTest {
         assertEquals(55.0, result.getPrice());
 
         verify(productRepository).findById(anyLong());
-        verify(productRepository).save(product);
+        verify(productRepository).saveAndFlush(product);
         verify(productMapper).convertToDto(updatedProduct);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(updatedDto)));
 
         verifyNoMoreInteractions(productRepository, productMapper);
     }
@@ -136,37 +307,108 @@ public class ProductServiceTest {
 
     @Test
     void givenProductInStock_whenBuyProduct_thenQuantityDecreases() {
-        Product product = buildProduct(50.0, 10);
         Product updatedProduct = buildProduct(50.0, 10 - 1);
-        ProductDto updatedDto = buildProductDto(55.0, 10 -1);
+        ProductDto updatedDto = buildProductDto(50.0, 10 - 1);
 
-        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
-        when(productMapper.convertToDto(any(Product.class))).thenReturn(updatedDto);
+        when(productRepository.decrementQuantity(1L, 1)).thenReturn(1);
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(updatedProduct));
+        when(productMapper.convertToDto(updatedProduct)).thenReturn(updatedDto);
 
         ProductDto result = productService.buyProduct(1L, 1);
 
         assertNotNull(result);
         assertEquals(9, result.getQuantity());
 
-        verify(productRepository).findById(anyLong());
-        verify(productRepository).save(product);
+        verify(productRepository).decrementQuantity(1L, 1);
+        verify(productRepository).findById(1L);
+        verify(productMapper).convertToDto(updatedProduct);
 
         verifyNoMoreInteractions(productRepository, productMapper);
     }
 
     @Test
     void givenProductExistsButOutOfStock_whenBuyProduct_thenThrowsOutOfStockException() {
-        Product product = buildProduct(50.0, 1);
-
-        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+        when(productRepository.decrementQuantity(1L, 2)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(ProductOutOfStockException.class, () -> productService.buyProduct(1L, 2));
     }
 
+    @Test
+    void givenNonexistentProduct_whenBuyProduct_thenThrowsNoSuchElementException() {
+        when(productRepository.decrementQuantity(1L, 2)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NoSuchElementException.class, () -> productService.buyProduct(1L, 2));
+    }
+
+    @Test
+    void givenNonPositiveQuantity_whenBuyProduct_thenThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> productService.buyProduct(1L, 0));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void givenCartWithRepeatedProducts_whenCheckout_thenLinesMergedAndUpdatedInIdOrder() {
+        SortedMap<Long, Integer> expectedQuantities = new TreeMap<>();
+        expectedQuantities.put(1L, 3);
+        expectedQuantities.put(2L, 1);
+        Product first = buildProduct(1L, 50.0, 7);
+        Product second = buildProduct(2L, 50.0, 9);
+
+        when(productRepository.decrementQuantities(expectedQuantities)).thenReturn(new int[]{1, 1});
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.findAllById(expectedQuantities.keySet())).thenReturn(List.of(second, first));
+        when(productMapper.convertToDto(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            return buildProductDto(product.getId(), product.getPrice(), product.getQuantity());
+        });
+
+        List<ProductDto> result = productService.checkout(List.of(
+                new CheckoutLine(2L, 1), new CheckoutLine(1L, 2), new CheckoutLine(1L, 1)));
+
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(2L, result.get(1).getId());
+        verify(productRepository).decrementQuantities(expectedQuantities);
+        verify(productCache).evict(1L);
+        verify(productCache).evict(2L);
+    }
+
+    @Test
+    void givenOneLineOutOfStock_whenCheckout_thenThrowsOutOfStockException() {
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{1, 0});
+        when(productRepository.existsById(2L)).thenReturn(true);
+
+        assertThrows(ProductOutOfStockException.class,
+                () -> productService.checkout(List.of(new CheckoutLine(1L, 1), new CheckoutLine(2L, 5))));
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void givenUnknownProduct_whenCheckout_thenThrowsNoSuchElementException() {
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{0});
+        when(productRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NoSuchElementException.class, () -> productService.checkout(List.of(new CheckoutLine(1L, 1))));
+    }
+
+    @Test
+    void givenDuplicateLinesOverflowingQuantity_whenCheckout_thenThrowsIllegalArgumentException() {
+        List<CheckoutLine> lines = List.of(new CheckoutLine(1L, Integer.MAX_VALUE), new CheckoutLine(1L, 2));
+
+        assertThrows(IllegalArgumentException.class, () -> productService.checkout(lines));
+        verify(productRepository, never()).decrementQuantities(any());
+    }
+
     private Product buildProduct(Double price, Integer quantity) {
+        return buildProduct(1L, price, quantity);
+    }
+
+    private Product buildProduct(Long id, Double price, Integer quantity) {
         return Product.builder()
-                .id(1L)
+                .id(id)
                 .name("Sample Product")
                 .price(price)
                 .quantity(quantity)
@@ -174,8 +416,12 @@ public class ProductServiceTest {
     }
 
     private ProductDto buildProductDto(Double price, Integer quantity) {
+        return buildProductDto(1L, price, quantity);
+    }
+
+    private ProductDto buildProductDto(Long id, Double price, Integer quantity) {
         return ProductDto.builder()
-                .id(1L)
+                .id(id)
                 .name("Sample Product")
                 .price(price)
                 .quantity(quantity)
@@ -0,0 +1,194 @@
+package storemanagementtool.store.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storemanagementtool.store.dto.ProductDto;
+import storemanagementtool.store.exception.custom.ProductOutOfStockException;
+import storemanagementtool.store.model.Product;
+import storemanagementtool.store.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockWriteBehindTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StockWriteBehind stockWriteBehind;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (stockWriteBehind != null) {
+            stockWriteBehind.stop();
+        }
+    }
+
+    @Test
+    void givenConcurrentPurchases_whenFlushed_thenCoalescedIntoOneUpdatePerProduct() throws Exception {
+        start(Duration.ofMillis(200));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{1});
+
+        List<CompletableFuture<Void>> purchases = List.of(
+                CompletableFuture.runAsync(() -> stockWriteBehind.decrement(1L, 1)),
+                CompletableFuture.runAsync(() -> stockWriteBehind.decrement(1L, 2)),
+                CompletableFuture.runAsync(() -> stockWriteBehind.decrement(1L, 3)));
+        CompletableFuture.allOf(purchases.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<SortedMap<Long, Integer>> quantities = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productRepository).decrementQuantities(quantities.capture());
+        assertEquals(6, quantities.getValue().get(1L));
+        assertEquals(1, meterRegistry.get("product.write_behind.flush").timer().count());
+        assertEquals(3.0, meterRegistry.get("product.write_behind.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void givenNotEnoughStockInMemory_whenDecrement_thenRejectedWithoutQueueing() {
+        start(Duration.ofMillis(1));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(2)));
+
+        assertThrows(ProductOutOfStockException.class, () -> stockWriteBehind.decrement(1L, 3));
+
+        verify(productRepository, never()).decrementQuantities(any());
+    }
+
+    @Test
+    void givenDatabaseHasLessStock_whenFlushed_thenCallerGetsOutOfStockAndProductRecounted() {
+        start(Duration.ofMillis(1));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)), Optional.of(buildProduct(0)));
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{0});
+
+        assertThrows(ProductOutOfStockException.class, () -> stockWriteBehind.decrement(1L, 3));
+        assertThrows(ProductOutOfStockException.class, () -> stockWriteBehind.decrement(1L, 1));
+
+        verify(productRepository, times(2)).findById(1L);
+        verify(productRepository, times(1)).decrementQuantities(any());
+        verify(productRepository).decrementQuantity(1L, 3);
+    }
+
+    @Test
+    void givenFlusherNotRunning_whenDecrement_thenRejectedAndStockKept() {
+        stockWriteBehind = new StockWriteBehind(productRepository, new TransactionTemplate(transactionManager), meterRegistry,
+                false, 10, 100, Duration.ofMillis(1), 100);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(1)));
+
+        assertThrows(RejectedExecutionException.class, () -> stockWriteBehind.decrement(1L, 1));
+        assertThrows(RejectedExecutionException.class, () -> stockWriteBehind.decrement(1L, 1));
+    }
+
+    @Test
+    void givenMergedDecrementTooLarge_whenFlushed_thenEachCallerRetriedAlone() throws Exception {
+        start(Duration.ofMillis(200));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{0});
+        when(productRepository.decrementQuantity(1L, 3)).thenReturn(1, 0);
+
+        List<CompletableFuture<Void>> purchases = List.of(
+                CompletableFuture.runAsync(() -> stockWriteBehind.decrement(1L, 3)),
+                CompletableFuture.runAsync(() -> stockWriteBehind.decrement(1L, 3)));
+        CompletableFuture.allOf(purchases.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, purchases.stream().filter(purchase -> !purchase.isCompletedExceptionally()).count());
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> purchases.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst().orElseThrow().get());
+        assertInstanceOf(ProductOutOfStockException.class, rejected.getCause());
+        verify(productRepository, times(2)).decrementQuantity(1L, 3);
+    }
+
+    @Test
+    void givenRetryInProgress_whenOtherProductPurchased_thenCommittedWithoutWaiting() throws Exception {
+        start(Duration.ofMillis(1));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{0}, new int[]{1});
+        CountDownLatch retryBlocked = new CountDownLatch(1);
+        when(productRepository.decrementQuantity(1L, 3)).thenAnswer(invocation -> {
+            retryBlocked.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+
+        CompletableFuture<Void> retried = CompletableFuture.runAsync(() -> stockWriteBehind.decrement(1L, 3));
+        verify(productRepository, timeout(5000)).decrementQuantity(1L, 3);
+        stockWriteBehind.decrement(2L, 1);
+
+        assertFalse(retried.isDone());
+        retryBlocked.countDown();
+        retried.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void givenNewerCommittedWrite_whenDecrement_thenCheckedAgainstWrittenStock() {
+        start(Duration.ofMillis(1));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{1});
+        stockWriteBehind.decrement(1L, 1);
+
+        stockWriteBehind.onProductChanged(new ProductChangedEvent(List.of(ProductDto.builder()
+                .id(1L)
+                .name("Sample Product")
+                .price(1.0)
+                .quantity(2)
+                .version(1L)
+                .build())));
+
+        assertThrows(ProductOutOfStockException.class, () -> stockWriteBehind.decrement(1L, 3));
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).decrementQuantities(any());
+    }
+
+    @Test
+    void givenMoreProductsThanTracked_whenCommitted_thenIdleProductsDropped() {
+        stockWriteBehind = new StockWriteBehind(productRepository, new TransactionTemplate(transactionManager), meterRegistry,
+                true, 10, 100, Duration.ofMillis(1), 1);
+        stockWriteBehind.start();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(buildProduct(10)));
+        when(productRepository.decrementQuantities(any())).thenReturn(new int[]{1});
+
+        stockWriteBehind.decrement(1L, 1);
+        stockWriteBehind.decrement(2L, 1);
+
+        assertTrue(stockWriteBehind.isTracked(1L));
+        assertFalse(stockWriteBehind.isTracked(2L));
+    }
+
+    private void start(Duration flushInterval) {
+        stockWriteBehind = new StockWriteBehind(productRepository, new TransactionTemplate(transactionManager), meterRegistry,
+                true, 10, 100, flushInterval, 100);
+        stockWriteBehind.start();
+    }
+
+    private Product buildProduct(Integer quantity) {
+        return Product.builder()
+                .id(1L)
+                .name("Sample Product")
+                .price(1.0)
+                .quantity(quantity)
+                .build();
+    }
+}
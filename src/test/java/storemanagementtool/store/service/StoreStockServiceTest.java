@@ -0,0 +1,92 @@
+package storemanagementtool.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import storemanagementtool.store.dto.StockAvailabilityDto;
+import storemanagementtool.store.exception.custom.ProductOutOfStockException;
+import storemanagementtool.store.model.StoreStock;
+import storemanagementtool.store.model.StoreStockId;
+import storemanagementtool.store.repository.ProductRepository;
+import storemanagementtool.store.repository.StoreStockRepository;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StoreStockServiceTest {
+    @Mock
+    private StoreStockRepository storeStockRepository;
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private StoreStockService storeStockService;
+
+    @Test
+    void givenStockInWarehouseAndSeveralStores_whenGetAvailability_thenAllSummed() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(5));
+        when(storeStockRepository.findByProductIdOrderByStoreIdAsc(1L))
+                .thenReturn(List.of(buildStock(1L, 4), buildStock(2L, 6)));
+
+        StockAvailabilityDto availability = storeStockService.getAvailability(1L);
+
+        assertEquals(5, availability.getWarehouseQuantity());
+        assertEquals(15, availability.getTotalQuantity());
+        assertEquals(2, availability.getStores().size());
+    }
+
+    @Test
+    void givenMissingProduct_whenGetAvailability_thenNotFound() {
+        when(productRepository.findQuantityById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> storeStockService.getAvailability(9L));
+    }
+
+    @Test
+    void givenProduct_whenSetStoreStock_thenRowCreatedIfAbsentAndUpdated() {
+        when(storeStockRepository.updateQuantity(1L, 2L, 7)).thenReturn(1);
+
+        assertEquals(7, storeStockService.setStoreStock(1L, 2L, 7).getQuantity());
+        verify(storeStockRepository).insertIfAbsent(1L, 2L);
+        verify(storeStockRepository, never()).save(any(StoreStock.class));
+    }
+
+    @Test
+    void givenMissingProduct_whenSetStoreStock_thenNotFound() {
+        when(storeStockRepository.updateQuantity(9L, 2L, 7)).thenReturn(0);
+
+        assertThrows(NoSuchElementException.class, () -> storeStockService.setStoreStock(9L, 2L, 7));
+    }
+
+    @Test
+    void givenTooLittleStockInStore_whenBuyFromStore_thenOutOfStock() {
+        when(storeStockRepository.decrementQuantity(1L, 2L, 3)).thenReturn(0);
+        when(storeStockRepository.existsById(new StoreStockId(1L, 2L))).thenReturn(true);
+
+        assertThrows(ProductOutOfStockException.class, () -> storeStockService.buyFromStore(1L, 2L, 3));
+    }
+
+    @Test
+    void givenStoreWithoutStock_whenBuyFromStore_thenNotFound() {
+        when(storeStockRepository.decrementQuantity(1L, 9L, 1)).thenReturn(0);
+        when(storeStockRepository.existsById(new StoreStockId(1L, 9L))).thenReturn(false);
+
+        assertThrows(NoSuchElementException.class, () -> storeStockService.buyFromStore(1L, 9L, 1));
+    }
+
+    private StoreStock buildStock(Long storeId, int quantity) {
+        return StoreStock.builder()
+                .productId(1L)
+                .storeId(storeId)
+                .quantity(quantity)
+                .build();
+    }
+}
@@ -0,0 +1,5 @@
+-- Runs before Hibernate creates the test schema; product.change_txid defaults to txid_current().
+-- H2 stand-ins for the Postgres transaction id functions, see TxidFunctions.
+CREATE ALIAS IF NOT EXISTS txid_current FOR 'storemanagementtool.store.repository.TxidFunctions.txidCurrent';
+CREATE ALIAS IF NOT EXISTS txid_current_snapshot FOR 'storemanagementtool.store.repository.TxidFunctions.txidCurrentSnapshot';
+CREATE ALIAS IF NOT EXISTS txid_snapshot_xmin FOR 'storemanagementtool.store.repository.TxidFunctions.txidSnapshotXmin';